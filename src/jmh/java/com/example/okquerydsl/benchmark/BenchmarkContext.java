@@ -0,0 +1,70 @@
+package com.example.okquerydsl.benchmark;
+
+import com.example.okquerydsl.OkQuerydslApplication;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// 벤치마크용 스프링 컨텍스트
+// 인메모리 H2를 사용하고 SQL 로깅, 통계 수집처럼 측정을 왜곡하는 설정은 끈다.
+public final class BenchmarkContext {
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... extraArgs) {
+        String[] args = Stream.concat(Stream.of(
+                "--spring.profiles.active=bench",
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.type=warn",
+                "--decorator.datasource.p6spy.enable-logging=false"
+        ), Stream.of(extraArgs)).toArray(String[]::new);
+
+        return new SpringApplicationBuilder(OkQuerydslApplication.class).run(args);
+    }
+
+    // teams 개의 팀에 members 명을 고르게 나눠서 저장한다. 팀 이름은 team0, team1 ...
+    public static void seed(ConfigurableApplicationContext context, int members, int teams) {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        List<Long> teamIds = tx.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < teams; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                ids.add(team.getId());
+            }
+            return ids;
+        });
+
+        for (int from = 0; from < members; from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(members, from + CHUNK_SIZE);
+            tx.executeWithoutResult(status -> {
+                for (int i = start; i < end; i++) {
+                    Member member = new Member("member" + i, i % 100);
+                    member.setTeam(em.getReference(Team.class, teamIds.get(i % teams)));
+                    em.persist(member);
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.okquerydsl.benchmark;
+
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// 시퀀스 allocationSize에 따른 insert 처리량
+// allocationSize=1 은 row 마다 시퀀스를 호출하던 방식과 같다.
+// 한 번의 op = 한 트랜잭션에서 BATCH 건 insert (JDBC batch 사용)
+// ./gradlew jmh -Pjmh.includes=MemberInsertBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(MemberInsertBenchmark.BATCH)
+public class MemberInsertBenchmark {
+
+    static final int BATCH = 1_000;
+
+    @Param({"1", "50", "1000"})
+    int allocationSize;
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    TransactionTemplate tx;
+    Long teamId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "--spring.jpa.properties.okquerydsl.id.allocation-size.member_seq=" + allocationSize);
+        em = context.getBean(EntityManager.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        teamId = tx.execute(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            return team.getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void insert() {
+        tx.executeWithoutResult(status -> {
+            Team team = em.getReference(Team.class, teamId);
+            for (int i = 0; i < BATCH; i++) {
+                Member member = new Member("member" + i, i % 100);
+                member.setTeam(team);
+                em.persist(member);
+            }
+            em.flush();
+            em.clear();
+        });
+    }
+}
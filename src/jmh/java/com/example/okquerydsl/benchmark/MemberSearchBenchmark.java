@@ -0,0 +1,228 @@
+package com.example.okquerydsl.benchmark;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.dto.QMemberTeamDto;
+import com.example.okquerydsl.repository.MemberJpaRepository;
+import com.example.okquerydsl.repository.MemberRepositoryImpl;
+import com.example.okquerydsl.repository.MemberSearchQueryBuilder;
+import com.example.okquerydsl.repository.MemberSearchTemplates;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.okquerydsl.entity.QMember.member;
+import static com.example.okquerydsl.entity.QTeam.team;
+import static com.example.okquerydsl.repository.MemberJpaRepository.nullSafeBuilder;
+import static org.springframework.util.StringUtils.hasText;
+
+// 같은 회원 검색을 만드는 여러 방식 비교
+// - build_* : 쿼리 객체(표현식 트리) 생성까지
+// - jpql_*  : 생성 + JPQL 직렬화
+// - fetch_* : DB 실행까지 (인메모리 H2, dataSize 만큼 저장)
+// 검색 조건은 username이 없는 경우로 고정한다. -> nullSafeBuilder는 매번 예외가 발생하는 경로를 탄다.
+// ./gradlew jmh -Pjmh.includes=MemberSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberSearchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int dataSize;
+
+    ConfigurableApplicationContext context;
+    JPAQueryFactory queryFactory;
+    MemberJpaRepository memberJpaRepository;
+    MemberRepositoryImpl memberRepositoryImpl;
+    MemberSearchQueryBuilder searchQueryBuilder;
+    MemberSearchTemplates searchTemplates;
+
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, dataSize, 10);
+
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepositoryImpl = context.getBean(MemberRepositoryImpl.class);
+        searchQueryBuilder = context.getBean(MemberSearchQueryBuilder.class);
+        searchTemplates = context.getBean(MemberSearchTemplates.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team3");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(21);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // ---- 쿼리 생성 ----
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> build_booleanBuilder() {
+        return booleanBuilderQuery();
+    }
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> build_whereParam() {
+        return whereParamQuery();
+    }
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> build_nullSafeBuilder() {
+        return nullSafeBuilderQuery();
+    }
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> build_queryProjection() {
+        return queryProjectionQuery();
+    }
+
+    // ---- 생성 + JPQL 직렬화 ----
+
+    @Benchmark
+    public String jpql_booleanBuilder() {
+        return booleanBuilderQuery().toString();
+    }
+
+    @Benchmark
+    public String jpql_whereParam() {
+        return whereParamQuery().toString();
+    }
+
+    @Benchmark
+    public String jpql_nullSafeBuilder() {
+        return nullSafeBuilderQuery().toString();
+    }
+
+    @Benchmark
+    public String jpql_queryProjection() {
+        return queryProjectionQuery().toString();
+    }
+
+    // ---- 실행 ----
+
+    @Benchmark
+    public List<MemberTeamDto> fetch_searchByBuilder() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> fetch_searchNew() {
+        return memberJpaRepository.searchNew(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> fetch_whereParam() {
+        return searchQueryBuilder.content(condition).fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> fetch_template() {
+        return searchTemplates.fetch(condition);
+    }
+
+    // 결과 캐시를 거치는 /v1/members 경로
+    @Benchmark
+    public List<MemberTeamDto> fetch_searchCached() {
+        return memberJpaRepository.search(condition);
+    }
+
+    @Benchmark
+    public void fetch_searchPageSimple2(Blackhole blackhole) {
+        blackhole.consume(memberRepositoryImpl.searchPageSimple2(condition, PageRequest.of(0, 20)));
+    }
+
+    // ---- 벤치마크 대상 쿼리 (각 저장소의 작성 방식을 그대로 옮김) ----
+
+    private JPAQuery<MemberTeamDto> booleanBuilderQuery() {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (hasText(condition.getUsername())) {
+            builder.and(member.username.eq(condition.getUsername()));
+        }
+        if (hasText(condition.getTeamName())) {
+            builder.and(team.name.eq(condition.getTeamName()));
+        }
+        if (condition.getAgeGoe() != null) {
+            builder.and(member.age.goe(condition.getAgeGoe()));
+        }
+        if (condition.getAgeLoe() != null) {
+            builder.and(member.age.loe(condition.getAgeLoe()));
+        }
+
+        return queryFactory
+                .select(Projections.constructor(MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(builder);
+    }
+
+    private JPAQuery<MemberTeamDto> whereParamQuery() {
+        return queryFactory
+                .select(Projections.constructor(MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    private JPAQuery<MemberTeamDto> nullSafeBuilderQuery() {
+        return queryFactory
+                .select(Projections.constructor(MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        nullSafeBuilder(() -> member.username.eq(condition.getUsername()))
+                                .and(nullSafeBuilder(() -> team.name.eq(condition.getTeamName()))),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    private JPAQuery<MemberTeamDto> queryProjectionQuery() {
+        return queryFactory
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
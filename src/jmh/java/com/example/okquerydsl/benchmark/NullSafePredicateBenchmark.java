@@ -0,0 +1,49 @@
+package com.example.okquerydsl.benchmark;
+
+import com.example.okquerydsl.repository.MemberJpaRepository;
+import com.querydsl.core.types.Predicate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.example.okquerydsl.entity.QMember.member;
+import static com.example.okquerydsl.entity.QTeam.team;
+import static com.example.okquerydsl.repository.support.NullSafePredicates.allOf;
+import static com.example.okquerydsl.repository.support.NullSafePredicates.eq;
+
+// 조건 값이 없을 때(null) 조건 조립 비용 비교 - DB 없이 표현식 생성만 측정
+// nullSafeBuilder: eq(null)이 던지는 IllegalArgumentException을 잡는다. (조건이 빠질 때마다 예외 + BooleanBuilder 2개)
+// NullSafePredicates: 값을 먼저 확인하고 null 반환
+// ./gradlew jmh -Pjmh.includes=NullSafePredicateBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NullSafePredicateBenchmark {
+
+    @Param({"absent", "present"})
+    String values;
+
+    String username;
+    String teamName;
+
+    @Setup
+    public void setUp() {
+        username = values.equals("present") ? "member1" : null;
+        teamName = values.equals("present") ? "teamA" : null;
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Predicate nullSafeBuilder() {
+        return MemberJpaRepository.nullSafeBuilder(() -> member.username.eq(username))
+                .and(MemberJpaRepository.nullSafeBuilder(() -> team.name.eq(teamName)));
+    }
+
+    @Benchmark
+    public Predicate nullSafePredicates() {
+        return allOf(
+                eq(member.username, username),
+                eq(team.name, teamName)
+        );
+    }
+}
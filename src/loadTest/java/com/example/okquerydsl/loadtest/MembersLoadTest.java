@@ -0,0 +1,98 @@
+package com.example.okquerydsl.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// /v3/members 에 동시 요청을 concurrency 개씩 유지하면서 requests 건을 보낸다.
+// 실행 중에 서버의 http.server.requests.active (처리 중인 요청 수)를 주기적으로 읽어서 최대값을 같이 출력한다.
+//  - 플랫폼 스레드 모드: Tomcat 스레드 수(기본 200)를 넘지 못한다.
+//  - 가상 스레드 모드: concurrency 만큼 올라간다. (대부분은 커넥션 풀을 기다리는 중)
+//
+// ./gradlew loadTest -PloadTest.concurrency=1000 -PloadTest.requests=20000
+public class MembersLoadTest {
+
+    private static final Pattern ACTIVE_TASKS = Pattern.compile("\"ACTIVE_TASKS\",\"value\":([0-9.]+)");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(8))
+                .build();
+
+        URI target = URI.create(baseUrl + "/v3/members?teamName=teamA&ageGoe=20&page=0&size=20");
+        URI activeMetric = URI.create(baseUrl + "/actuator/metrics/http.server.requests.active");
+
+        AtomicInteger peakActive = new AtomicInteger();
+        ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor();
+        poller.scheduleAtFixedRate(() -> peakActive.accumulateAndGet(activeRequests(client, activeMetric), Math::max),
+                0, 100, TimeUnit.MILLISECONDS);
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+        AtomicInteger errors = new AtomicInteger();
+        List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            futures.add(client.sendAsync(HttpRequest.newBuilder(target).GET().build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        inFlight.release();
+                        if (e != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else {
+                            latencies.add(System.nanoTime() - sent);
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        poller.shutdownNow();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("requests=%d concurrency=%d errors=%d elapsed=%.1fs throughput=%.0f req/s%n",
+                requests, concurrency, errors.get(), seconds, requests / seconds);
+        System.out.printf("latency p50=%dms p99=%dms max=%dms%n",
+                millis(sorted, 0.50), millis(sorted, 0.99), millis(sorted, 1.0));
+        System.out.printf("server peak active requests=%d%n", peakActive.get());
+        System.exit(0);
+    }
+
+    private static int activeRequests(HttpClient client, URI activeMetric) {
+        try {
+            String body = client.send(HttpRequest.newBuilder(activeMetric).GET().build(), HttpResponse.BodyHandlers.ofString()).body();
+            Matcher matcher = ACTIVE_TASKS.matcher(body);
+            return matcher.find() ? (int) Double.parseDouble(matcher.group(1)) : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static long millis(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1);
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(index, 0)));
+    }
+}
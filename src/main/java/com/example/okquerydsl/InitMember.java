@@ -1,46 +0,0 @@
-package com.example.okquerydsl;
-
-import com.example.okquerydsl.entity.Member;
-import com.example.okquerydsl.entity.Team;
-import jakarta.annotation.PostConstruct;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import lombok.RequiredArgsConstructor;
-import org.springframework.context.annotation.Profile;
-import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-
-@Profile("local")
-@Component
-@RequiredArgsConstructor
-public class InitMember {
-
-    private final InitMemberService initMemberService;
-
-    // @PostConstruct는 빈이 생성되는 시점에 실행된다.
-    // -> @Transactional은 AOP로 동작하는데 @PostConstruct가 AOP의 프록시 객체 생성을 보장해주지 않는다. AOP의 프록시 객체가 생성되지 않았는데 @PostConstruct가 실행될 수도 있다.
-
-    @PostConstruct
-    public void init() {
-        initMemberService.init();
-    }
-
-    @Component
-    static class InitMemberService {
-        @PersistenceContext
-        private EntityManager em;
-
-        @Transactional
-        public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
-            }
-        }
-    }
-}
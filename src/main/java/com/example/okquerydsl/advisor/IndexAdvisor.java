@@ -0,0 +1,173 @@
+package com.example.okquerydsl.advisor;
+
+import com.example.okquerydsl.advisor.SearchShapeRecorder.ObservedShape;
+import com.example.okquerydsl.advisor.SearchShapeRecorder.Query;
+import com.example.okquerydsl.advisor.SearchShapeRecorder.Sort;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.okquerydsl.repository.cache.MemberSearchKey.*;
+
+// 실제로 실행된 검색 모양마다 대표 SQL을 만들어 H2 EXPLAIN으로 실행 계획을 확인하고
+// member 테이블 전체 스캔(tableScan)이면 복합 인덱스를 추천한다.
+//  - 컬럼 순서: 동등 조건(username, team_id) -> 범위 조건/정렬(age)
+//  - 회원명 PREFIX, CONTAINS는 lower(username) like 라서 B-tree 인덱스를 쓸 수 없다. (UsernameIndex 메모리 인덱스가 담당)
+//  - 추천은 DDL과 @Table(indexes = ...)에 넣을 @Index 두 가지 형태로 준다. (ddl-auto: create 이므로 DDL로 만든 인덱스는 재시작하면 사라진다)
+// 인덱스를 직접 만들지는 않는다. (운영 DB에 actuator로 DDL을 실행하지 않는다)
+// 기준 기록(SearchShapeRecorder.markBaseline)이 있으면 모양별 평균 소요 시간을 기준과 비교해서 보여준다. (인덱스 반영 전/후)
+@Component
+@RequiredArgsConstructor
+public class IndexAdvisor {
+
+    private final SearchShapeRecorder recorder;
+    private final JdbcTemplate jdbcTemplate;
+
+    // 총 소요 시간이 큰 모양부터
+    public List<Advice> advise() {
+        Sample sample = sample();
+        return recorder.snapshot().stream()
+                .sorted(Comparator.comparingLong(ObservedShape::getTotalNanos).reversed())
+                .map(observed -> advise(observed, sample))
+                .toList();
+    }
+
+    private Advice advise(ObservedShape observed, Sample sample) {
+        String plan = explain(sql(observed.getShape(), observed.getSort(), observed.getQuery(), sample));
+        boolean fullScan = plan.toUpperCase().contains("PUBLIC.MEMBER.TABLESCAN");
+        List<String> columns = indexColumns(observed.getShape(), observed.getSort());
+        ObservedShape baseline = recorder.baselineOf(observed);
+
+        return new Advice(
+                observed.getShape(),
+                SearchShapeRecorder.describe(observed.getShape()),
+                observed.getSort(),
+                observed.getQuery(),
+                observed.getExecutions(),
+                observed.meanMillis(),
+                baseline == null ? null : baseline.getExecutions(),
+                baseline == null ? null : baseline.meanMillis(),
+                baseline == null || baseline.meanMillis() == 0 ? null
+                        : (observed.meanMillis() - baseline.meanMillis()) / baseline.meanMillis() * 100,
+                plan,
+                fullScan,
+                fullScan && !columns.isEmpty() ? Recommendation.of(columns) : null
+        );
+    }
+
+    static List<String> indexColumns(int shape, Sort sort) {
+        List<String> columns = new ArrayList<>();
+        if ((shape & USERNAME) != 0 && (shape & (USERNAME_PREFIX | USERNAME_CONTAINS)) == 0) {
+            columns.add("username");
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            columns.add("team_id");
+        }
+        if ((shape & (AGE_GOE | AGE_LOE)) != 0 || sort == Sort.AGE) {
+            columns.add("age");
+        }
+        return columns;
+    }
+
+    // MemberSearchTemplates, MemberSearchQueryBuilder가 만드는 쿼리와 같은 모양의 SQL (값은 실제 데이터에서 한 건 가져온다)
+    // count 쿼리는 where 절이 member 컬럼만 보므로 조인하지 않는다.
+    static String sql(int shape, Sort sort, Query query, Sample sample) {
+        List<String> where = new ArrayList<>();
+        String username = sample.getUsername().replace("'", "''");
+        if ((shape & USERNAME_PREFIX) != 0) {
+            where.add("lower(m.username) like '" + username.toLowerCase() + "%'");
+        } else if ((shape & USERNAME_CONTAINS) != 0) {
+            where.add("lower(m.username) like '%" + username.toLowerCase() + "%'");
+        } else if ((shape & USERNAME) != 0) {
+            where.add("m.username = '" + username + "'");
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            where.add("m.team_id in (" + sample.getTeamId() + ")");
+        }
+        if ((shape & AGE_GOE) != 0) {
+            where.add("m.age >= " + sample.getAge());
+        }
+        if ((shape & AGE_LOE) != 0) {
+            where.add("m.age <= " + sample.getAge());
+        }
+
+        StringBuilder sql = new StringBuilder(query == Query.COUNT
+                ? "select count(*) from member m"
+                : "select m.member_id, m.username, m.age, t.team_id, t.name from member m left join team t on t.team_id = m.team_id");
+        if (!where.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", where));
+        }
+        if (query == Query.COUNT) {
+            return sql.toString();
+        }
+        if (sort == Sort.ID) {
+            sql.append(" order by m.member_id");
+        } else if (sort == Sort.AGE) {
+            sql.append(" order by m.age, m.member_id");
+        }
+        return sql.append(" limit 20").toString();
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+
+    private Sample sample() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select username, team_id, age from member where username is not null and team_id is not null limit 1");
+        if (rows.isEmpty()) {
+            return new Sample("member", 0L, 0);
+        }
+        Map<String, Object> row = rows.get(0);
+        return new Sample((String) row.get("username"), ((Number) row.get("team_id")).longValue(), ((Number) row.get("age")).intValue());
+    }
+
+    @Value
+    static class Sample {
+        String username;
+        long teamId;
+        int age;
+    }
+
+    @Value
+    public static class Advice {
+        int shape;
+        String shapeDescription;
+        Sort sort;
+        Query query;
+        long executions;
+        double meanMillis;
+        // 기준 기록 (없으면 null), 평균 소요 시간 변화율(%, 음수면 빨라짐)
+        Long baselineExecutions;
+        Double baselineMeanMillis;
+        Double meanChangePercent;
+        String plan;
+        boolean fullScan;
+        Recommendation recommendation;
+    }
+
+    @Value
+    public static class Recommendation {
+        String name;
+        List<String> columns;
+        String ddl;
+        String annotation;
+
+        static Recommendation of(List<String> columns) {
+            String name = "idx_member_" + String.join("_", columns);
+            String columnList = String.join(", ", columns);
+            return new Recommendation(
+                    name,
+                    columns,
+                    "create index if not exists " + name + " on member (" + columnList + ")",
+                    "@Index(name = \"" + name + "\", columnList = \"" + columnList + "\")"
+            );
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.okquerydsl.advisor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// GET /actuator/indexadvisor     관측된 검색 모양별 실행 계획과 추천 인덱스(DDL, @Index), 기준 대비 평균 소요 시간
+// DELETE /actuator/indexadvisor  지금까지의 관측 기록을 기준으로 남기고 새로 관측한다.
+// 인덱스는 만들지 않는다. 추천 DDL은 검토 후 마이그레이션이나 @Table(indexes = ...)로 반영한다.
+// -> 반영 직전에 DELETE, 반영 후 트래픽이 쌓인 뒤 GET 하면 모양별 전/후 소요 시간을 비교할 수 있다.
+@Component
+@Endpoint(id = "indexadvisor")
+@RequiredArgsConstructor
+public class IndexAdvisorEndpoint {
+
+    private final IndexAdvisor indexAdvisor;
+    private final SearchShapeRecorder recorder;
+
+    @ReadOperation
+    public List<IndexAdvisor.Advice> advise() {
+        return indexAdvisor.advise();
+    }
+
+    @DeleteOperation
+    public void markBaseline() {
+        recorder.markBaseline();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.okquerydsl.advisor;
+
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.example.okquerydsl.repository.cache.MemberSearchKey.*;
+
+// 실제로 실행된 검색 조건 모양(MemberSearchKey.shape)과 정렬, content/count 쿼리별 실행 횟수, 소요 시간
+// IndexAdvisor가 어떤 인덱스가 필요한지 판단하는 근거가 된다.
+// markBaseline()은 지금까지의 기록을 기준(before)으로 남기고 새로 기록한다. -> 인덱스 반영 전/후 소요 시간을 비교할 수 있다.
+@Component
+public class SearchShapeRecorder {
+
+    public enum Sort {
+        NONE,
+        ID,     // member_id
+        AGE     // age, member_id
+    }
+
+    // 같은 모양이라도 count 쿼리는 조인, 정렬, limit이 없어서 실행 계획과 시간이 다르다.
+    public enum Query {
+        CONTENT,
+        COUNT
+    }
+
+    private final Map<ShapeKey, Stats> stats = new ConcurrentHashMap<>();
+    private volatile Map<ShapeKey, ObservedShape> baseline = Map.of();
+
+    public <T> T record(int shape, Sort sort, Supplier<T> query) {
+        return record(new ShapeKey(shape, sort, Query.CONTENT), query);
+    }
+
+    public <T> T recordCount(int shape, Supplier<T> query) {
+        return record(new ShapeKey(shape, Sort.NONE, Query.COUNT), query);
+    }
+
+    private <T> T record(ShapeKey key, Supplier<T> query) {
+        long start = System.nanoTime();
+        try {
+            return query.get();
+        } finally {
+            Stats s = stats.computeIfAbsent(key, k -> new Stats());
+            s.executions.increment();
+            s.nanos.add(System.nanoTime() - start);
+        }
+    }
+
+    public List<ObservedShape> snapshot() {
+        List<ObservedShape> result = new ArrayList<>();
+        stats.forEach((key, s) -> result.add(observed(key, s)));
+        return result;
+    }
+
+    public void markBaseline() {
+        Map<ShapeKey, ObservedShape> marked = new HashMap<>();
+        for (ShapeKey key : stats.keySet()) {
+            Stats s = stats.remove(key);
+            if (s != null) {
+                marked.put(key, observed(key, s));
+            }
+        }
+        baseline = marked;
+    }
+
+    // 같은 모양, 정렬, 쿼리의 기준 기록 (없으면 null)
+    public ObservedShape baselineOf(ObservedShape observed) {
+        return baseline.get(new ShapeKey(observed.shape, observed.sort, observed.query));
+    }
+
+    public void clear() {
+        stats.clear();
+        baseline = Map.of();
+    }
+
+    private static ObservedShape observed(ShapeKey key, Stats s) {
+        return new ObservedShape(key.shape, key.sort, key.query, s.executions.sum(), s.nanos.sum());
+    }
+
+    public static String describe(int shape) {
+        List<String> fields = new ArrayList<>();
+        if ((shape & USERNAME) != 0) {
+            fields.add((shape & USERNAME_PREFIX) != 0 ? "username(prefix)"
+                    : (shape & USERNAME_CONTAINS) != 0 ? "username(contains)"
+                    : "username");
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            fields.add("teamName");
+        }
+        if ((shape & AGE_GOE) != 0) {
+            fields.add("ageGoe");
+        }
+        if ((shape & AGE_LOE) != 0) {
+            fields.add("ageLoe");
+        }
+        return fields.isEmpty() ? "(none)" : String.join(", ", fields);
+    }
+
+    @Value
+    public static class ObservedShape {
+        int shape;
+        Sort sort;
+        Query query;
+        long executions;
+        long totalNanos;
+
+        public double meanMillis() {
+            return executions == 0 ? 0 : totalNanos / 1e6 / executions;
+        }
+    }
+
+    @Value
+    private static class ShapeKey {
+        int shape;
+        Sort sort;
+        Query query;
+    }
+
+    private static class Stats {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+}
@@ -1,28 +1,77 @@
 package com.example.okquerydsl.controller;
 
+import com.example.okquerydsl.dto.CursorPage;
 import com.example.okquerydsl.dto.MemberSearchCondition;
 import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.repository.MemberAsyncRepository;
+import com.example.okquerydsl.repository.MemberCursor;
 import com.example.okquerydsl.repository.MemberJpaRepository;
 import com.example.okquerydsl.repository.MemberRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberAsyncRepository memberAsyncRepository;
+    private final ObjectMapper objectMapper;
+
+    // true면 /v3/members 의 content, count 쿼리를 동시에 실행한다.
+    @Value("${member.search.concurrent-count.enabled:false}")
+    private boolean concurrentCount;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberJpaRepository.search(condition);
     }
 
+    // v1과 같은 검색이지만 결과를 모아두지 않고 한 줄에 한 건씩(NDJSON) 바로 응답으로 내보낸다.
+    @GetMapping(value = "/v1/members/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody searchMemberV1Stream(MemberSearchCondition condition) {
+        ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        return out -> memberJpaRepository.searchStream(condition, dto -> {
+            try {
+                writer.writeValue(out, dto);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // 회원명 자동완성 (?prefix=mem&limit=10, limit은 1~50)
+    @GetMapping("/v1/members/autocomplete")
+    public List<String> autocompleteUsername(@RequestParam String prefix,
+                                             @RequestParam(defaultValue = "10") int limit) {
+        return memberJpaRepository.autocomplete(prefix, Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT)));
+    }
+
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
         return memberRepository.searchPageSimple(condition, pageable);
@@ -30,6 +79,53 @@ public class MemberController {
 
     @GetMapping("/v3/members")
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+        if (concurrentCount) {
+            return memberRepository.searchPageConcurrent(condition, pageable);
+        }
         return memberRepository.searchPageComplex(condition, pageable);
     }
+
+    // CompletableFuture를 반환하면 요청 스레드는 바로 반납되고 future가 완료될 때 응답한다.
+    @GetMapping("/v3/members/async")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV3Async(MemberSearchCondition condition, Pageable pageable) {
+        return memberAsyncRepository.searchPage(condition, pageable);
+    }
+
+    // 팀별 검색을 동시에 실행해서 팀 이름별로 묶어서 응답한다. (?teamNames=teamA,teamB&ageGoe=20)
+    @GetMapping("/v1/members/by-team")
+    public CompletableFuture<Map<String, List<MemberTeamDto>>> searchMemberByTeam(MemberSearchCondition condition,
+                                                                                 @RequestParam List<String> teamNames) {
+        Map<String, CompletableFuture<List<MemberTeamDto>>> searches = new LinkedHashMap<>();
+        for (String teamName : teamNames) {
+            MemberSearchCondition teamCondition = new MemberSearchCondition();
+            teamCondition.setUsername(condition.getUsername());
+            teamCondition.setAgeGoe(condition.getAgeGoe());
+            teamCondition.setAgeLoe(condition.getAgeLoe());
+            teamCondition.setTeamName(teamName);
+            searches.put(teamName, memberAsyncRepository.search(teamCondition));
+        }
+
+        return CompletableFuture.allOf(searches.values().toArray(CompletableFuture[]::new))
+                .thenApply(done -> {
+                    Map<String, List<MemberTeamDto>> result = new LinkedHashMap<>();
+                    searches.forEach((teamName, search) -> result.put(teamName, search.join()));
+                    return result;
+                });
+    }
+
+    // cursor가 없으면 첫 페이지, 응답의 nextCursor를 그대로 넘기면 다음 페이지
+    // size는 1~100, 잘못된 cursor는 400
+    @GetMapping("/v4/members")
+    public CursorPage<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "ID") MemberCursor.SortKey sort,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        MemberCursor decoded;
+        try {
+            decoded = MemberCursor.decode(cursor, sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return memberRepository.searchByCursor(condition, decoded, Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE)));
+    }
 }
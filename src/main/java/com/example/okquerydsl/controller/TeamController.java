@@ -0,0 +1,21 @@
+package com.example.okquerydsl.controller;
+
+import com.example.okquerydsl.dto.TeamStatisticsDto;
+import com.example.okquerydsl.statistics.TeamStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+    private final TeamStatistics teamStatistics;
+
+    // 팀 이름별 나이 통계. DB를 조회하지 않고 미리 집계해둔 값을 반환한다.
+    @GetMapping("/v1/teams/statistics")
+    public List<TeamStatisticsDto> teamStatistics() {
+        return teamStatistics.statistics();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.okquerydsl.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+// readOnly 트랜잭션이라도 primary에서 읽어야 하는 조회
+// 공유 캐시를 채우는 조회가 대표적이다. 캐시는 커밋 직후에 무효화되는데, 그때 레플리카가 아직 따라오지 못했다면
+// 변경 전 값을 읽어서 다시 캐시하게 되고 모든 사용자가 다음 무효화까지 그 값을 본다. (ReplicaLagPolicy는 쓴 쪽의 읽기만 primary로 보낸다)
+// 커넥션은 트랜잭션의 첫 쿼리에서 정해지므로, 이미 레플리카 커넥션을 쓰는 트랜잭션 안에서는 primary로 바꿀 수 없다. -> isAvailable()
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> required = new ThreadLocal<>();
+    // 현재 트랜잭션이 레플리카 커넥션을 쓰고 있다는 표시 (트랜잭션 리소스 키)
+    private static final Object REPLICA_BOUND = new Object();
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> task) {
+        if (Boolean.TRUE.equals(required.get())) {
+            return task.get();
+        }
+        required.set(Boolean.TRUE);
+        try {
+            return task.get();
+        } finally {
+            required.remove();
+        }
+    }
+
+    // call() 안에서 얻는 커넥션이 primary 커넥션인지
+    // 트랜잭션이 없거나, 아직 커넥션을 얻지 않았거나, primary 커넥션을 쓰고 있으면 true
+    public static boolean isAvailable() {
+        return !TransactionSynchronizationManager.hasResource(REPLICA_BOUND);
+    }
+
+    static boolean isRequired() {
+        return Boolean.TRUE.equals(required.get());
+    }
+
+    // 트랜잭션 안에서 레플리카 커넥션을 얻었을 때 ReplicaRoutingDataSource가 호출한다. 트랜잭션이 끝나면 지운다.
+    static void replicaBound() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(REPLICA_BOUND)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_BOUND, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_BOUND);
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.okquerydsl.datasource;
+
+import java.util.function.Supplier;
+
+// 쓰기 이후 복제 지연 동안 primary에서 읽어야 하는 범위(쓴 사람)를 나타내는 키
+// HTTP 요청은 ReadYourWritesFilter가 로그인 사용자 이름 또는 세션 id로 정한다.
+// 키가 없으면 현재 스레드가 키가 된다. -> 같은 스레드(같은 요청) 안에서만 자기 쓰기를 읽는다.
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Object> writer = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static Object currentWriter() {
+        Object key = writer.get();
+        return key == null ? Thread.currentThread() : key;
+    }
+
+    public static <T> T call(Object key, Supplier<T> task) {
+        Object previous = bind(key);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    // 이전 키를 반환한다. 끝나면 restore로 되돌려야 한다.
+    static Object bind(Object key) {
+        Object previous = writer.get();
+        writer.set(key);
+        return previous;
+    }
+
+    static void restore(Object previous) {
+        if (previous == null) {
+            writer.remove();
+        } else {
+            writer.set(previous);
+        }
+    }
+}
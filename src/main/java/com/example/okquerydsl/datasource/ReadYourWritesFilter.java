@@ -0,0 +1,42 @@
+package com.example.okquerydsl.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+
+// 요청마다 ReadYourWrites 키를 정한다. 로그인 사용자 > 기존 세션 순서이고 둘 다 없으면 요청(스레드) 단위
+// 세션을 새로 만들지는 않는다.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Object key = writerKey(request);
+        if (key == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Object previous = ReadYourWrites.bind(key);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.restore(previous);
+        }
+    }
+
+    private static Object writerKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        HttpSession session = request.getSession(false);
+        return session == null ? null : "session:" + session.getId();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.okquerydsl.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// 복제 지연 허용 정책
+// 쓰기 트랜잭션이 커밋된 뒤 maxLag 동안은 레플리카에 아직 반영되지 않았을 수 있으므로 그 쓰기를 한 쪽의 읽기는 primary로 보낸다. (read-your-writes)
+// 쓴 쪽은 ReadYourWrites 키(사용자, 세션, 없으면 스레드)로 구분한다. -> 다른 사용자의 읽기는 계속 레플리카로 간다.
+// maxLag가 0이면 항상 레플리카에서 읽는다.
+public class ReplicaLagPolicy {
+
+    // 이보다 많이 쌓이면 maxLag가 지난 기록을 정리한다.
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final long maxLagNanos;
+    private final Supplier<Object> writerKey;
+    private final Map<Object, Long> lastWriteCommitNanos = new ConcurrentHashMap<>();
+
+    public ReplicaLagPolicy(Duration maxLag) {
+        this(maxLag, ReadYourWrites::currentWriter);
+    }
+
+    ReplicaLagPolicy(Duration maxLag, Supplier<Object> writerKey) {
+        this.maxLagNanos = maxLag.toNanos();
+        this.writerKey = writerKey;
+    }
+
+    // primary 로 가는 (readOnly가 아닌) 트랜잭션의 커밋 시각을 쓴 쪽 키로 기록한다. 트랜잭션당 한 번만 등록
+    void trackWrite() {
+        if (maxLagNanos <= 0
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+
+        Object writer = writerKey.get();
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long now = System.nanoTime();
+                if (lastWriteCommitNanos.size() >= PRUNE_THRESHOLD) {
+                    lastWriteCommitNanos.values().removeIf(committed -> now - committed >= maxLagNanos);
+                }
+                lastWriteCommitNanos.put(writer, now);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReplicaLagPolicy.this);
+            }
+        });
+    }
+
+    boolean replicasMayLag() {
+        Object writer = writerKey.get();
+        Long committed = lastWriteCommitNanos.get(writer);
+        if (committed == null) {
+            return false;
+        }
+        if (System.nanoTime() - committed < maxLagNanos) {
+            return true;
+        }
+        lastWriteCommitNanos.remove(writer, committed);
+        return false;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.okquerydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// @Transactional(readOnly = true) 는 레플리카, 나머지(쓰기, 트랜잭션 없음)는 primary로 보낸다.
+// 트랜잭션 시작 시점에는 아직 readOnly 여부가 동기화 매니저에 등록되지 않으므로
+// LazyConnectionDataSourceProxy로 감싸서 첫 쿼리 시점에 커넥션을 고르도록 해야 한다.
+// PrimaryReads.call() 안에서 얻는 커넥션은 readOnly여도 primary로 보낸다. (공유 캐시를 채우는 조회)
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_LOADED    // 사용중 + 대기중 커넥션이 가장 적은 레플리카 (HikariDataSource만 지원, 나머지는 0으로 봄)
+    }
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final Selection selection;
+    private final ReplicaLagPolicy lagPolicy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Selection selection, ReplicaLagPolicy lagPolicy) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.lagPolicy = lagPolicy;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(replicaKey(i), this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            lagPolicy.trackWrite();
+            return PRIMARY;
+        }
+        if (replicas.isEmpty() || PrimaryReads.isRequired() || lagPolicy.replicasMayLag()) {
+            return PRIMARY;
+        }
+        PrimaryReads.replicaBound();
+        return replicaKey(selection == Selection.ROUND_ROBIN ? roundRobin() : leastLoaded());
+    }
+
+    private int roundRobin() {
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    private int leastLoaded() {
+        int selected = 0;
+        int minLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            int load = load(replicas.get(i));
+            if (load < minLoad) {
+                selected = i;
+                minLoad = load;
+            }
+        }
+        return selected;
+    }
+
+    private static int load(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null) {
+                return pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+            }
+        }
+        return 0;
+    }
+
+    private static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+
+    @Override
+    public void close() throws Exception {
+        List<DataSource> all = new ArrayList<>(replicas);
+        all.add(primary);
+        for (DataSource dataSource : all) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
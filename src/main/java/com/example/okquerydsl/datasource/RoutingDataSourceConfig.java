@@ -0,0 +1,60 @@
+package com.example.okquerydsl.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// app.datasource.routing.enabled=true 일 때 spring.datasource 대신 사용된다. (application-replica.yml)
+// 작업 종류별 풀(app.datasource.workload)도 켜져 있으면 primary 풀 대신 WorkloadRoutingDataSource를 쓴다.
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    ReplicaRoutingDataSource replicaRoutingDataSource(RoutingDataSourceProperties properties,
+                                                      ObjectProvider<WorkloadRoutingDataSource> workloadRoutingDataSource) {
+        DataSource primary = workloadRoutingDataSource.getIfAvailable(() -> pool(properties.getPrimary(), "primary"));
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            replicas.add(pool(properties.getReplicas().get(i), "replica-" + i));
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, properties.getSelection(),
+                new ReplicaLagPolicy(properties.getMaxReplicaLag()));
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // 트랜잭션보다 먼저 쓴 쪽(사용자, 세션)을 정해야 하므로 앞쪽에서 실행한다.
+    @Bean
+    FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    private static HikariDataSource pool(HikariConfig config, String defaultPoolName) {
+        if (config.getPoolName() == null) {
+            config.setPoolName(defaultPoolName);
+        }
+        return new HikariDataSource(config);
+    }
+}
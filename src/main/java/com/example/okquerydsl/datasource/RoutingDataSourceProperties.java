@@ -0,0 +1,21 @@
+package com.example.okquerydsl.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties("app.datasource.routing")
+public class RoutingDataSourceProperties {
+    private boolean enabled;
+    private ReplicaRoutingDataSource.Selection selection = ReplicaRoutingDataSource.Selection.ROUND_ROBIN;
+    // 쓰기 커밋 이후 이 시간 동안은 읽기도 primary에서 한다.
+    private Duration maxReplicaLag = Duration.ofSeconds(1);
+    private HikariConfig primary = new HikariConfig();
+    private List<HikariConfig> replicas = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package com.example.okquerydsl.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 메서드(또는 클래스의 모든 메서드)가 사용할 커넥션 풀을 지정한다. (WorkloadAspect)
+// 메서드에 붙은 것이 클래스에 붙은 것보다 우선한다.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+    WorkloadType value();
+}
@@ -0,0 +1,44 @@
+package com.example.okquerydsl.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+
+// @Workload를 읽어서 WorkloadContext에 설정한다.
+// @Transactional 보다 먼저 실행되어야 트랜잭션이 커넥션을 얻을 때 풀이 정해져 있다.
+// 이미 트랜잭션이 커넥션을 가지고 있으면(바깥 트랜잭션에 참여) 풀이 바뀌지 않는다.
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadAspect {
+
+    @Around("@annotation(com.example.okquerydsl.datasource.Workload) || @within(com.example.okquerydsl.datasource.Workload)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (WorkloadContext.isSet()) {
+            return joinPoint.proceed();
+        }
+
+        WorkloadContext.set(workload(joinPoint));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.clear();
+        }
+    }
+
+    private static WorkloadType workload(ProceedingJoinPoint joinPoint) {
+        Class<?> targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        Method method = AopUtils.getMostSpecificMethod(((MethodSignature) joinPoint.getSignature()).getMethod(), targetClass);
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(method, Workload.class);
+        if (workload == null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(targetClass, Workload.class);
+        }
+        return workload == null ? WorkloadType.INTERACTIVE : workload.value();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.okquerydsl.datasource;
+
+import java.util.function.Supplier;
+
+// 현재 스레드의 작업 종류. 바깥에서 이미 정해졌으면 안쪽 호출은 바꾸지 않는다.
+// (대량 작업 중에 부른 검색 메서드도 BULK 풀을 쓴다)
+// 다른 스레드로 넘어가는 작업(스레드 풀, CompletableFuture)은 propagate()로 감싸거나 그 스레드에서 다시 지정해야 한다.
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadType> current = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static WorkloadType current() {
+        WorkloadType type = current.get();
+        return type == null ? WorkloadType.INTERACTIVE : type;
+    }
+
+    public static <T> T call(WorkloadType type, Supplier<T> task) {
+        if (current.get() != null) {
+            return task.get();
+        }
+        current.set(type);
+        try {
+            return task.get();
+        } finally {
+            current.remove();
+        }
+    }
+
+    public static void run(WorkloadType type, Runnable task) {
+        call(type, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    // 다른 스레드에서 실행할 작업에 지금 스레드의 작업 종류를 넘긴다.
+    // 정해지지 않았으면 그대로 두므로, 그 스레드에서 부른 @Workload 메서드가 정한다.
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        WorkloadType type = current.get();
+        return type == null ? task : () -> call(type, task);
+    }
+
+    static boolean isSet() {
+        return current.get() != null;
+    }
+
+    static void set(WorkloadType type) {
+        current.set(type);
+    }
+
+    static void clear() {
+        current.remove();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.okquerydsl.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+// app.datasource.workload.enabled=true 일 때 작업 종류별 풀을 만든다. (application-workload.yml)
+// 풀마다 hikaricp.connections.* 메트릭을 pool=workload-xxx 태그로 기록한다.
+//  - hikaricp.connections.acquire  커넥션을 얻기까지 걸린 시간
+//  - hikaricp.connections.pending  커넥션을 기다리는 스레드 수
+//  - hikaricp.connections.usage    커넥션을 빌려서 돌려주기까지의 시간
+// 읽기/쓰기 분리(app.datasource.routing)도 켜져 있으면 이 라우터가 primary 자리에 들어간다. (RoutingDataSourceConfig)
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.workload", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(WorkloadDataSourceProperties.class)
+public class WorkloadDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    WorkloadRoutingDataSource workloadRoutingDataSource(WorkloadDataSourceProperties properties,
+                                                        DataSourceProperties dataSourceProperties,
+                                                        MeterRegistry meterRegistry) {
+        Map<WorkloadType, DataSource> pools = new EnumMap<>(WorkloadType.class);
+        for (WorkloadType type : WorkloadType.values()) {
+            HikariConfig config = properties.getPools().getOrDefault(type, new HikariConfig());
+            if (config.getJdbcUrl() == null) {
+                config.setJdbcUrl(dataSourceProperties.determineUrl());
+                config.setUsername(dataSourceProperties.determineUsername());
+                config.setPassword(dataSourceProperties.determinePassword());
+                config.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            }
+            if (config.getPoolName() == null) {
+                config.setPoolName(type.poolName());
+            }
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.put(type, new HikariDataSource(config));
+        }
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    @Bean
+    WorkloadAspect workloadAspect() {
+        return new WorkloadAspect();
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "false", matchIfMissing = true)
+    DataSource dataSource(WorkloadRoutingDataSource workloadRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(workloadRoutingDataSource);
+    }
+}
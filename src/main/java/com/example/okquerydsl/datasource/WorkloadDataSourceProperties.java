@@ -0,0 +1,17 @@
+package com.example.okquerydsl.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter @Setter
+@ConfigurationProperties("app.datasource.workload")
+public class WorkloadDataSourceProperties {
+    private boolean enabled;
+    // 작업 종류별 풀 설정. jdbc-url을 생략하면 spring.datasource 접속 정보를 쓴다.
+    private Map<WorkloadType, HikariConfig> pools = new EnumMap<>(WorkloadType.class);
+}
@@ -0,0 +1,44 @@
+package com.example.okquerydsl.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// WorkloadContext의 작업 종류별로 다른 커넥션 풀을 쓴다. (bulkhead)
+// -> 대량 작업이나 전체 조회가 커넥션을 모두 가져가도 INTERACTIVE 풀은 영향을 받지 않는다.
+// 커넥션은 트랜잭션 시작 시점이 아니라 첫 쿼리 시점에 얻도록 LazyConnectionDataSourceProxy로 감싸서 쓴다.
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final Map<WorkloadType, DataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<WorkloadType, DataSource> pools) {
+        if (!pools.containsKey(WorkloadType.INTERACTIVE)) {
+            throw new IllegalArgumentException("INTERACTIVE pool is required");
+        }
+        this.pools = Map.copyOf(pools);
+
+        setTargetDataSources(new HashMap<>(this.pools));
+        setDefaultTargetDataSource(this.pools.get(WorkloadType.INTERACTIVE));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    public DataSource pool(WorkloadType type) {
+        return pools.get(type);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : pools.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
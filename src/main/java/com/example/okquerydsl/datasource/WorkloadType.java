@@ -0,0 +1,12 @@
+package com.example.okquerydsl.datasource;
+
+// 커넥션 풀을 나눠 쓰는 작업 종류. 풀 이름은 workload-interactive 처럼 붙는다.
+public enum WorkloadType {
+    INTERACTIVE,    // 페이지 검색, 자동완성 등 응답 시간이 중요한 짧은 쿼리 (지정하지 않으면 이 풀)
+    REPORTING,      // 전체 조회, 스트리밍 내보내기 등 오래 걸리는 읽기
+    BULK;           // 대량 수정/삭제, 시드 데이터 적재
+
+    String poolName() {
+        return "workload-" + name().toLowerCase();
+    }
+}
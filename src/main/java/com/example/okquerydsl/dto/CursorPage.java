@@ -0,0 +1,19 @@
+package com.example.okquerydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// offset 페이징과 달리 total count를 제공하지 않는다. 다음 페이지는 nextCursor로만 요청할 수 있다.
+@Getter
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+}
@@ -7,6 +7,7 @@ public class MemberSearchCondition {
     // 회원명, 팀명, 나이 ageGoe ageLoe
 
     private String username;
+    private UsernameMatch usernameMatch;   // 없으면 EXACT
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
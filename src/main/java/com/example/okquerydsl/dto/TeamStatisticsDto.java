@@ -0,0 +1,23 @@
+package com.example.okquerydsl.dto;
+
+import lombok.Data;
+
+// 팀 이름별 회원 나이 통계 (count, sum, avg, max, min)
+@Data
+public class TeamStatisticsDto {
+    private String teamName;
+    private long count;
+    private long sum;
+    private double avg;
+    private int max;
+    private int min;
+
+    public TeamStatisticsDto(String teamName, long count, long sum, int max, int min) {
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.avg = count == 0 ? 0 : (double) sum / count;
+        this.max = max;
+        this.min = min;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.okquerydsl.dto;
+
+import java.util.Locale;
+
+// 회원명 검색 방식 (MemberSearchCondition.usernameMatch, 없으면 EXACT)
+// PREFIX, CONTAINS는 대소문자를 구분하지 않는다.
+public enum UsernameMatch {
+    EXACT,
+    PREFIX,
+    CONTAINS;
+
+    public boolean matches(String query, String username) {
+        if (username == null) {
+            return false;
+        }
+        return switch (this) {
+            case EXACT -> query.equals(username);
+            case PREFIX -> normalize(username).startsWith(normalize(query));
+            case CONTAINS -> normalize(username).contains(normalize(query));
+        };
+    }
+
+    // lower({username}) like {pattern} escape '!' 에 바인딩할 값
+    public String likePattern(String query) {
+        String escaped = normalize(query)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return switch (this) {
+            case EXACT -> escaped;
+            case PREFIX -> escaped + "%";
+            case CONTAINS -> "%" + escaped + "%";
+        };
+    }
+
+    public static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
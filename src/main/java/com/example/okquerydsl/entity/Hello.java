@@ -1,13 +1,13 @@
 package com.example.okquerydsl.entity;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 @Entity @Getter @NoArgsConstructor
 public class Hello {
-    @Id @GeneratedValue
+    @Id
+    @PooledLoSequence(name = "hello_seq")
     private Long id;
 }
@@ -2,13 +2,27 @@ package com.example.okquerydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+// 검색 조건 모양별 인덱스 (IndexAdvisor 추천: 동등 조건 컬럼 -> 범위/정렬 컬럼 순)
+//  - username [+ age]          : usernameEq, usernameEq + age 범위
+//  - team_id + age             : teamName(-> team_id in) + age 범위
+//  - age                       : age 범위만, AGE cursor 정렬 (age, member_id)
+@Table(indexes = {
+        @Index(name = "idx_member_username_age", columnList = "username, age"),
+        @Index(name = "idx_member_team_id_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_age", columnList = "age")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"}) // 양방향 연관관계 필드를 to Stirng 만들면 안됨
 public class Member {
-    @Id @GeneratedValue
+    @Id
+    @PooledLoSequence(name = "member_seq", allocationSize = 1000)
     @Column(name = "member_id")
     private Long id;
     private String username;
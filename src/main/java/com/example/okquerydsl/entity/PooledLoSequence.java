@@ -0,0 +1,21 @@
+package com.example.okquerydsl.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 시퀀스 id (pooled-lo) - @GeneratedValue 대신 id 필드에 붙인다.
+// allocationSize는 기본값이고 설정에서 시퀀스별로 덮어쓸 수 있다. (PooledLoSequenceGenerator)
+@IdGeneratorType(PooledLoSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledLoSequence {
+
+    // 시퀀스 이름
+    String name();
+
+    int allocationSize() default 50;
+}
@@ -0,0 +1,100 @@
+package com.example.okquerydsl.entity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+// 시퀀스 id 생성기 (pooled-lo)
+// 시퀀스를 한 번 호출하면 [값, 값 + allocationSize) 범위를 메모리에서 나눠준다. -> insert 마다 시퀀스를 호출하지 않아서 JDBC batch가 끊기지 않는다.
+// allocationSize는 시퀀스별로 설정에서 바꿀 수 있다. 없으면 @PooledLoSequence의 allocationSize를 쓴다.
+//   spring.jpa.properties.okquerydsl.id.allocation-size.member_seq: 1000
+//   spring.jpa.properties.okquerydsl.id.allocation-size.default: 50
+// 시퀀스 생성 DDL(increment by)도 같은 값으로 만들어지므로 운영 DB의 시퀀스 increment와 맞춰야 한다.
+//
+// @GenericGenerator(type = ...)는 deprecated 이므로 @IdGeneratorType으로 등록하고,
+// 생성자에서 SequenceStyleGenerator를 직접 설정해서 위임한다.
+public class PooledLoSequenceGenerator implements IdentifierGenerator {
+
+    public static final String ALLOCATION_SIZE_PREFIX = "okquerydsl.id.allocation-size.";
+
+    private final SequenceStyleGenerator delegate = new SequenceStyleGenerator();
+    private final Counter generated;
+    private final Counter sequenceCalls;
+
+    public PooledLoSequenceGenerator(PooledLoSequence config, Member idMember, CustomIdGeneratorCreationContext context) {
+        String sequenceName = config.name();
+        Map<String, Object> settings = context.getServiceRegistry().getService(ConfigurationService.class).getSettings();
+
+        Properties parameters = new Properties();
+        parameters.setProperty(SequenceStyleGenerator.SEQUENCE_PARAM, sequenceName);
+        parameters.setProperty(SequenceStyleGenerator.INCREMENT_PARAM, allocationSize(settings, config).toString());
+        parameters.setProperty(SequenceStyleGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        if (context.getDefaultCatalog() != null) {
+            parameters.setProperty(PersistentIdentifierGenerator.CATALOG, context.getDefaultCatalog());
+        }
+        if (context.getDefaultSchema() != null) {
+            parameters.setProperty(PersistentIdentifierGenerator.SCHEMA, context.getDefaultSchema());
+        }
+        delegate.configure(context.getProperty().getType(), parameters, context.getServiceRegistry());
+
+        // 시퀀스 호출 수 / 생성한 id 수 = row 당 시퀀스 왕복 (1 / allocationSize 에 가까울수록 좋음)
+        // 전체 insert 수 대비 시퀀스 호출 수는 /actuator/hibernate 의 sequences 에서 본다.
+        generated = Metrics.counter("hibernate.id.generated", "sequence", sequenceName);
+        sequenceCalls = Metrics.counter("hibernate.id.sequence.calls", "sequence", sequenceName);
+        Gauge.builder("hibernate.id.sequence.calls.per.row", this,
+                        generator -> generator.generated.count() == 0 ? 0 : generator.sequenceCalls.count() / generator.generated.count())
+                .tag("sequence", sequenceName)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static Object allocationSize(Map<String, Object> settings, PooledLoSequence config) {
+        Object allocationSize = settings.get(ALLOCATION_SIZE_PREFIX + config.name());
+        if (allocationSize == null) {
+            allocationSize = settings.get(ALLOCATION_SIZE_PREFIX + "default");
+        }
+        return allocationSize != null ? allocationSize : config.allocationSize();
+    }
+
+    @Override
+    public void registerExportables(Database database) {
+        delegate.registerExportables(database);
+    }
+
+    @Override
+    public void initialize(SqlStringGenerationContext context) {
+        delegate.initialize(context);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Optimizer optimizer = delegate.getOptimizer();
+        // pooled-lo optimizer도 자기 자신으로 동기화하므로 여기서 같이 잡아도 추가로 기다리지 않는다.
+        // -> 다른 스레드의 시퀀스 호출을 내 호출로 세지 않는다.
+        synchronized (optimizer) {
+            Object lastSourceValue = optimizer.getLastSourceValue();
+            Object id = delegate.generate(session, object);
+
+            generated.increment();
+            // optimizer가 시퀀스를 다시 호출했다면 마지막 시퀀스 값이 바뀐다.
+            if (!Objects.equals(lastSourceValue, optimizer.getLastSourceValue())) {
+                sequenceCalls.increment();
+            }
+            return id;
+        }
+    }
+}
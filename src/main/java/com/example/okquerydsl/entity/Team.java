@@ -1,24 +1,32 @@
 package com.example.okquerydsl.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
+// 팀은 거의 바뀌지 않고 member.getTeam() 으로 자주 읽히므로 2차 캐시에 둔다.
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class Team {
-    @Id @GeneratedValue
+    @Id
+    @PooledLoSequence(name = "team_seq")
     private Long id;
     private String name;
 
+    // 컬렉션 캐시에는 회원 id만 저장되고 회원 자체는 member 영역에서 읽는다.
     @OneToMany(mappedBy = "team")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team.members")
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
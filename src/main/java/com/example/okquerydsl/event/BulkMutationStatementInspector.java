@@ -0,0 +1,108 @@
+package com.example.okquerydsl.event;
+
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 벌크 연산(update().execute(), delete().execute())은 영속성 컨텍스트를 거치지 않아서 엔티티 이벤트가 발생하지 않는다.
+// Hibernate가 실행하는 모든 SQL을 확인해서 member, team 테이블에 대한 벌크 DML이면 커밋 이후 BULK 이벤트를 발행한다.
+// 엔티티 단건 DML(insert ... values, update/delete ... where pk=?)은 post-commit 리스너가 처리하므로 제외한다.
+// 여러 트랜잭션으로 나눠 실행하는 벌크 연산(MemberBulkRepository)은 deferTo()로 이벤트를 모아서 작업이 끝난 뒤 한 번만 발행한다.
+// -> BULK 이벤트를 받은 캐시, 인덱스, 읽기 모델이 chunk 마다 전체를 다시 만들지 않는다.
+public class BulkMutationStatementInspector implements StatementInspector {
+
+    private static final Pattern LEADING_COMMENT = Pattern.compile("^\\s*/\\*.*?\\*/\\s*", Pattern.DOTALL);
+    private static final Pattern DML = Pattern.compile("^(update|delete\\s+from|insert\\s+into)\\s+(\\w+)\\b(.*)$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern SINGLE_ROW = Pattern.compile(
+            "^(\\s+set\\s+.*)?\\s+where\\s+\\w+=\\?(\\s+and\\s+\\w+=\\?)*\\s*$|^\\s*\\([^)]*\\)\\s+values\\s*\\(.*\\)\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final Map<String, Class<?>> TABLES = Map.of(
+            "member", Member.class,
+            "team", Team.class
+    );
+
+    // deferTo() 실행 중인 스레드의 벌크 DML 대상
+    private static final ThreadLocal<Set<Class<?>>> deferred = new ThreadLocal<>();
+
+    private final transient ApplicationEventPublisher publisher;
+
+    public BulkMutationStatementInspector(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Class<?> entityType = bulkTarget(sql);
+        if (entityType == null) {
+            return sql;
+        }
+
+        Set<Class<?>> deferredTargets = deferred.get();
+        if (deferredTargets != null) {
+            deferredTargets.add(entityType);
+        } else {
+            publishAfterCommit(EntityChangeEvent.bulk(entityType));
+        }
+        return sql;
+    }
+
+    // task 안에서 이 스레드가 실행한 벌크 DML은 이벤트를 발행하지 않고 대상 엔티티 타입을 targets에 모은다.
+    // 롤백된 트랜잭션의 대상도 담기므로, 호출한 쪽은 task가 실패했더라도 모인 대상의 BULK 이벤트를 발행해야 한다.
+    public static <T> T deferTo(Set<Class<?>> targets, Supplier<T> task) {
+        Set<Class<?>> previous = deferred.get();
+        deferred.set(targets);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                deferred.remove();
+            } else {
+                deferred.set(previous);
+            }
+        }
+    }
+
+    static Class<?> bulkTarget(String sql) {
+        String statement = LEADING_COMMENT.matcher(sql).replaceFirst("");
+        // 대부분은 select 이므로 정규식 전에 빠르게 거른다.
+        if (statement.regionMatches(true, 0, "select", 0, 6)) {
+            return null;
+        }
+
+        Matcher matcher = DML.matcher(statement);
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        Class<?> entityType = TABLES.get(matcher.group(2).toLowerCase());
+        if (entityType == null || SINGLE_ROW.matcher(matcher.group(3)).matches()) {
+            return null;
+        }
+        return entityType;
+    }
+
+    private void publishAfterCommit(EntityChangeEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publisher.publishEvent(event);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publisher.publishEvent(event);
+            }
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.okquerydsl.event;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// 엔티티 변경 이벤트 등록
+// 캐시처럼 DB 상태를 따라가야 하는 컴포넌트들은 @EventListener로 EntityChangeEvent를 받으면 된다.
+@Configuration
+@RequiredArgsConstructor
+public class EntityChangeConfig {
+
+    private final ApplicationEventPublisher publisher;
+
+    @Bean
+    HibernatePropertiesCustomizer bulkMutationStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new BulkMutationStatementInspector(publisher));
+    }
+
+    @Configuration
+    @RequiredArgsConstructor
+    static class ListenerRegistration {
+
+        private final EntityManagerFactory emf;
+        private final ApplicationEventPublisher publisher;
+
+        @PostConstruct
+        void register() {
+            EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+
+            EntityChangePublisher listener = new EntityChangePublisher(publisher);
+            registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+            registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+            registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.okquerydsl.event;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+
+// 커밋된 엔티티 변경을 알리는 스프링 이벤트
+// INSERT, UPDATE, DELETE는 Hibernate 엔티티 이벤트에서, BULK는 update().execute() 같은 벌크 연산 SQL에서 발행된다.
+// 벌크 연산은 어떤 row가 바뀌었는지 알 수 없으므로 id, state 없이 엔티티 타입만 담는다.
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class EntityChangeEvent {
+
+    public enum Type {
+        INSERT, UPDATE, DELETE, BULK
+    }
+
+    private final Type type;
+    private final Class<?> entityType;
+    private final Object id;
+    private final Object entity;
+    private final String[] propertyNames;
+    private final Object[] state;
+    private final Object[] oldState;
+
+    public static EntityChangeEvent inserted(Object entity, Object id, String[] propertyNames, Object[] state) {
+        return new EntityChangeEvent(Type.INSERT, entity.getClass(), id, entity, propertyNames, state, null);
+    }
+
+    public static EntityChangeEvent updated(Object entity, Object id, String[] propertyNames, Object[] state, Object[] oldState) {
+        return new EntityChangeEvent(Type.UPDATE, entity.getClass(), id, entity, propertyNames, state, oldState);
+    }
+
+    public static EntityChangeEvent deleted(Object entity, Object id, String[] propertyNames, Object[] oldState) {
+        return new EntityChangeEvent(Type.DELETE, entity.getClass(), id, entity, propertyNames, null, oldState);
+    }
+
+    public static EntityChangeEvent bulk(Class<?> entityType) {
+        return new EntityChangeEvent(Type.BULK, entityType, null, null, null, null, null);
+    }
+
+    public boolean isAbout(Class<?> type) {
+        return type.isAssignableFrom(entityType);
+    }
+
+    public boolean isBulk() {
+        return type == Type.BULK;
+    }
+
+    // 변경 후 값 (DELETE, BULK는 null)
+    public Object getValue(String propertyName) {
+        return valueOf(state, propertyName);
+    }
+
+    // 변경 전 값 (INSERT, BULK는 null, UPDATE는 엔티티가 detach 상태로 merge 되었다면 null일 수 있다)
+    public Object getOldValue(String propertyName) {
+        return valueOf(oldState, propertyName);
+    }
+
+    private Object valueOf(Object[] values, String propertyName) {
+        if (values == null) {
+            return null;
+        }
+        int index = Arrays.asList(propertyNames).indexOf(propertyName);
+        return index < 0 ? null : values[index];
+    }
+}
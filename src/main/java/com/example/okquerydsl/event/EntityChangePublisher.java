@@ -0,0 +1,56 @@
+package com.example.okquerydsl.event;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Hibernate post-commit 리스너 -> 스프링 EntityChangeEvent
+// 트랜잭션이 커밋된 이후에만 호출되므로 롤백된 변경은 이벤트로 나가지 않는다.
+public class EntityChangePublisher implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final transient ApplicationEventPublisher publisher;
+
+    public EntityChangePublisher(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publisher.publishEvent(EntityChangeEvent.inserted(
+                event.getEntity(), event.getId(), event.getPersister().getPropertyNames(), event.getState()));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publisher.publishEvent(EntityChangeEvent.updated(
+                event.getEntity(), event.getId(), event.getPersister().getPropertyNames(), event.getState(), event.getOldState()));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publisher.publishEvent(EntityChangeEvent.deleted(
+                event.getEntity(), event.getId(), event.getPersister().getPropertyNames(), event.getDeletedState()));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.okquerydsl.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// GET /actuator/hibernate
+// Hibernate Statistics를 쿼리 문자열 단위로 보여준다. (hibernate.generate_statistics: true 필요, local 프로필에서만 켜져 있다)
+// 통계가 꺼져 있으면 enabled=false 와 시퀀스 호출 수만 보여준다. (0으로 채운 통계는 보여주지 않는다)
+// 쿼리는 총 실행 시간(실행 횟수 x 평균)이 큰 순서로 정렬한다. -> 먼저 튜닝할 쿼리
+// POST /actuator/hibernate 로 통계를 초기화할 수 있다. 인증 없이 노출되므로 monitoring.hibernate-statistics.clear-enabled 일 때만 허용한다.
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private final EntityManagerFactory emf;
+    private final boolean clearEnabled;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory emf,
+                                       @Value("${monitoring.hibernate-statistics.clear-enabled:false}") boolean clearEnabled) {
+        this.emf = emf;
+        this.clearEnabled = clearEnabled;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Statistics statistics = statistics0();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            result.put("sequences", sequences(statistics));
+            return result;
+        }
+        result.put("queries", queries(statistics));
+        result.put("queryPlanCache", Map.of(
+                "hits", statistics.getQueryPlanCacheHitCount(),
+                "misses", statistics.getQueryPlanCacheMissCount(),
+                "hitRatio", ratio(statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount())
+        ));
+        result.put("entities", Map.of(
+                "loads", statistics.getEntityLoadCount(),
+                "fetches", statistics.getEntityFetchCount(),
+                "inserts", statistics.getEntityInsertCount(),
+                "updates", statistics.getEntityUpdateCount(),
+                "deletes", statistics.getEntityDeleteCount()
+        ));
+        result.put("collections", Map.of(
+                "loads", statistics.getCollectionLoadCount(),
+                "fetches", statistics.getCollectionFetchCount()
+        ));
+        result.put("sessions", Map.of(
+                "opened", statistics.getSessionOpenCount(),
+                "closed", statistics.getSessionCloseCount(),
+                "flushes", statistics.getFlushCount(),
+                "connections", statistics.getConnectCount(),
+                "prepareStatements", statistics.getPrepareStatementCount(),
+                "transactions", statistics.getTransactionCount()
+        ));
+        result.put("secondLevelCache", secondLevelCache(statistics));
+        result.put("sequences", sequences(statistics));
+        return result;
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Void> clear() {
+        if (!clearEnabled) {
+            return new WebEndpointResponse<>(HttpStatus.FORBIDDEN.value());
+        }
+        statistics0().clear();
+        return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+    }
+
+    private List<Map<String, Object>> queries(Statistics statistics) {
+        return Arrays.stream(statistics.getQueries())
+                .map(query -> query(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingDouble((Map<String, Object> query) -> (double) query.get("totalTimeMs")).reversed())
+                .toList();
+    }
+
+    private Map<String, Object> query(String query, QueryStatistics statistics) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("query", query);
+        result.put("executions", statistics.getExecutionCount());
+        result.put("avgTimeMs", statistics.getExecutionAvgTimeAsDouble());
+        result.put("maxTimeMs", statistics.getExecutionMaxTime());
+        result.put("totalTimeMs", statistics.getExecutionCount() * statistics.getExecutionAvgTimeAsDouble());
+        result.put("rows", statistics.getExecutionRowCount());
+        result.put("planCacheHits", statistics.getPlanCacheHitCount());
+        result.put("planCacheMisses", statistics.getPlanCacheMissCount());
+        return result;
+    }
+
+    private Map<String, Object> secondLevelCache(Statistics statistics) {
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            regions.put(region, Map.of(
+                    "hits", regionStatistics.getHitCount(),
+                    "misses", regionStatistics.getMissCount(),
+                    "puts", regionStatistics.getPutCount(),
+                    "hitRatio", ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount()),
+                    "elementsInMemory", regionStatistics.getElementCountInMemory()
+            ));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hits", statistics.getSecondLevelCacheHitCount());
+        result.put("misses", statistics.getSecondLevelCacheMissCount());
+        result.put("puts", statistics.getSecondLevelCachePutCount());
+        result.put("regions", regions);
+        return result;
+    }
+
+    // 시퀀스 호출 수 (PooledLoSequenceGenerator) 와 insert 된 엔티티 수 대비 호출 비율
+    // 시퀀스 호출 수는 애플리케이션 시작부터 누적이므로 clear() 이후에는 비율이 실제보다 크게 나온다.
+    private Map<String, Object> sequences(Statistics statistics) {
+        Map<String, Object> calls = new LinkedHashMap<>();
+        long total = 0;
+        for (Counter counter : Metrics.globalRegistry.find("hibernate.id.sequence.calls").counters()) {
+            long count = (long) counter.count();
+            calls.put(counter.getId().getTag("sequence"), count);
+            total += count;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("calls", calls);
+        // insert 수는 Hibernate Statistics에서 읽으므로 통계가 꺼져 있으면 비율을 구할 수 없다.
+        if (statistics.isStatisticsEnabled()) {
+            long inserts = statistics.getEntityInsertCount();
+            result.put("callsPerInsert", inserts == 0 ? 0 : (double) total / inserts);
+        }
+        return result;
+    }
+
+    private Statistics statistics0() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.okquerydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+// GET /actuator/repositorylatency     repository 메서드 x 검색 조건 모양별 p50/p99/p999 (p99가 큰 순서)
+// DELETE /actuator/repositorylatency  기록 초기화
+@Endpoint(id = "repositorylatency")
+@RequiredArgsConstructor
+public class RepositoryLatencyEndpoint {
+
+    private final RepositoryLatencyRecorder recorder;
+
+    @ReadOperation
+    public List<RepositoryLatencyRecorder.Latency> latencies() {
+        return recorder.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        recorder.reset();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.okquerydsl.monitoring;
+
+import com.example.okquerydsl.advisor.SearchShapeRecorder;
+import com.example.okquerydsl.repository.cache.MemberSearchKey;
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// repository 메서드 x 검색 조건 모양별 HDR 히스토그램
+// 기록은 Recorder(wait-free)에 하고, 조회할 때 그동안 쌓인 구간 히스토그램을 누적 히스토그램에 합친다.
+// -> 기록하는 스레드끼리도, 조회하는 스레드와도 락을 잡지 않는다.
+public class RepositoryLatencyRecorder {
+
+    // MemberSearchCondition 인자가 없는 메서드
+    static final int NO_SHAPE = MemberSearchKey.SHAPE_COUNT;
+
+    private final long highestTrackableNanos;
+    private final int significantDigits;
+    // "리포지토리.메서드" 이름 -> 모양별 히스토그램
+    private final Map<String, AtomicReferenceArray<Entry>> entries = new ConcurrentHashMap<>();
+
+    public RepositoryLatencyRecorder(long highestTrackableNanos, int significantDigits) {
+        this.highestTrackableNanos = highestTrackableNanos;
+        this.significantDigits = significantDigits;
+    }
+
+    public void record(String method, int shape, long elapsedNanos) {
+        entry(method, shape).recorder.recordValue(Math.min(Math.max(elapsedNanos, 1), highestTrackableNanos));
+    }
+
+    public List<Latency> snapshot() {
+        List<Latency> result = new ArrayList<>();
+        entries.forEach((method, shapes) -> {
+            for (int shape = 0; shape < shapes.length(); shape++) {
+                Entry entry = shapes.get(shape);
+                if (entry != null) {
+                    result.add(entry.latency(method, shape));
+                }
+            }
+        });
+        result.sort(Comparator.comparingDouble(Latency::getP99Millis).reversed());
+        return result;
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    private Entry entry(String method, int shape) {
+        AtomicReferenceArray<Entry> shapes = entries.computeIfAbsent(method, m -> new AtomicReferenceArray<>(NO_SHAPE + 1));
+        Entry entry = shapes.get(shape);
+        if (entry == null) {
+            shapes.compareAndSet(shape, null, new Entry(highestTrackableNanos, significantDigits));
+            entry = shapes.get(shape);
+        }
+        return entry;
+    }
+
+    private static class Entry {
+        final Recorder recorder;
+        final Histogram total;
+        Histogram interval;
+
+        Entry(long highestTrackableNanos, int significantDigits) {
+            this.recorder = new Recorder(highestTrackableNanos, significantDigits);
+            this.total = new Histogram(highestTrackableNanos, significantDigits);
+        }
+
+        synchronized Latency latency(String method, int shape) {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return new Latency(
+                    method,
+                    shape == NO_SHAPE ? null : SearchShapeRecorder.describe(shape),
+                    total.getTotalCount(),
+                    millis(total.getValueAtPercentile(50)),
+                    millis(total.getValueAtPercentile(99)),
+                    millis(total.getValueAtPercentile(99.9)),
+                    millis(total.getMaxValue())
+            );
+        }
+
+        private static double millis(long nanos) {
+            return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+
+    @Value
+    public static class Latency {
+        String method;
+        String shape;       // 검색 조건이 없는 메서드면 null
+        long count;         // 샘플링된 호출 수
+        double p50Millis;
+        double p99Millis;
+        double p999Millis;
+        double maxMillis;
+    }
+}
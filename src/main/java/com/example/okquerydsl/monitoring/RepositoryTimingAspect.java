@@ -0,0 +1,111 @@
+package com.example.okquerydsl.monitoring;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.repository.cache.MemberSearchKey;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// repository 패키지의 @Repository 빈과 Spring Data 리포지토리(MemberRepository 등)의 public 메서드 실행 시간을 잰다.
+//  - Spring Data 리포지토리는 프록시가 SimpleJpaRepository, MemberRepositoryImpl로 넘기므로 프록시(this)로 고른다.
+//    이름은 선언한 인터페이스(CrudRepository, MemberCustomRepository)가 아니라 리포지토리 인터페이스로 쓴다.
+//  - sampleRate 비율만 System.nanoTime()을 잰다. 나머지는 난수 하나만 뽑고 바로 실행한다.
+//  - repository 메서드 안에서 다시 repository 메서드를 부르면(MemberRepository -> MemberRepositoryImpl 등) 바깥 호출만 잰다.
+//  - CompletableFuture를 반환하면 완료될 때까지를 잰다.
+// repository.timing.enabled=false 면 빈이 만들어지지 않으므로 프록시도 생기지 않는다.
+@Aspect
+@RequiredArgsConstructor
+public class RepositoryTimingAspect {
+
+    private static final ThreadLocal<Boolean> timing = new ThreadLocal<>();
+
+    // 프록시 클래스 -> 메서드 -> "리포지토리.메서드"
+    // 같은 CrudRepository.findById라도 리포지토리마다 프록시 클래스가 다르다.
+    private static final ClassValue<Map<Method, String>> names = new ClassValue<>() {
+        @Override
+        protected Map<Method, String> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final RepositoryLatencyRecorder recorder;
+    private final double sampleRate;
+
+    @Pointcut("execution(public * com.example.okquerydsl.repository.*.*(..)) && @within(org.springframework.stereotype.Repository)")
+    public void repositoryMethods() {
+    }
+
+    @Pointcut("execution(public * *(..)) && this(org.springframework.data.repository.Repository)")
+    public void springDataRepositoryMethods() {
+    }
+
+    @Around("repositoryMethods() || springDataRepositoryMethods()")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (timing.get() != null || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return joinPoint.proceed();
+        }
+
+        String method = name(joinPoint.getThis(), ((MethodSignature) joinPoint.getSignature()).getMethod());
+        int shape = shape(joinPoint.getArgs());
+        long start = System.nanoTime();
+        Object result;
+        timing.set(Boolean.TRUE);
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            recorder.record(method, shape, System.nanoTime() - start);
+            throw e;
+        } finally {
+            timing.remove();
+        }
+
+        if (result instanceof CompletableFuture<?> future && !future.isDone()) {
+            future.whenComplete((value, e) -> recorder.record(method, shape, System.nanoTime() - start));
+        } else {
+            recorder.record(method, shape, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    private static String name(Object proxy, Method method) {
+        Map<Method, String> byMethod = names.get(proxy.getClass());
+        String name = byMethod.get(method);
+        if (name == null) {
+            name = owner(proxy).getSimpleName() + "." + method.getName();
+            byMethod.put(method, name);
+        }
+        return name;
+    }
+
+    private static Class<?> owner(Object proxy) {
+        if (proxy instanceof Repository<?, ?>) {
+            for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+                if (type != Repository.class && Repository.class.isAssignableFrom(type)) {
+                    return type;
+                }
+            }
+        }
+        return ClassUtils.getUserClass(proxy);
+    }
+
+    private static int shape(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition condition) {
+                return MemberSearchKey.of(condition).shape();
+            }
+        }
+        return RepositoryLatencyRecorder.NO_SHAPE;
+    }
+}
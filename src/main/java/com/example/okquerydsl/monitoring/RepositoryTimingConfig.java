@@ -0,0 +1,28 @@
+package com.example.okquerydsl.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// repository.timing.enabled=true 일 때만 aspect와 엔드포인트를 등록한다.
+@Configuration
+@ConditionalOnProperty(prefix = "repository.timing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RepositoryTimingProperties.class)
+public class RepositoryTimingConfig {
+
+    @Bean
+    RepositoryLatencyRecorder repositoryLatencyRecorder(RepositoryTimingProperties properties) {
+        return new RepositoryLatencyRecorder(properties.getHighestTrackableValue().toNanos(), properties.getSignificantDigits());
+    }
+
+    @Bean
+    RepositoryTimingAspect repositoryTimingAspect(RepositoryLatencyRecorder recorder, RepositoryTimingProperties properties) {
+        return new RepositoryTimingAspect(recorder, properties.getSampleRate());
+    }
+
+    @Bean
+    RepositoryLatencyEndpoint repositoryLatencyEndpoint(RepositoryLatencyRecorder recorder) {
+        return new RepositoryLatencyEndpoint(recorder);
+    }
+}
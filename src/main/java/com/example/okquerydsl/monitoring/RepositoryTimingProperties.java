@@ -0,0 +1,19 @@
+package com.example.okquerydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties("repository.timing")
+public class RepositoryTimingProperties {
+    private boolean enabled;
+    // 호출 중 기록할 비율 (0.0 ~ 1.0)
+    private double sampleRate = 1.0;
+    // 이보다 오래 걸린 호출은 이 값으로 기록한다.
+    private Duration highestTrackableValue = Duration.ofMinutes(1);
+    // 유효 자릿수 (1 ~ 5) - 클수록 정확하지만 히스토그램이 커진다.
+    private int significantDigits = 2;
+}
@@ -0,0 +1,55 @@
+package com.example.okquerydsl.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+// 2차 캐시 영역별 hit, miss, put, hit ratio
+// hibernate.cache.second_level, region=team|member|team.members 태그로 구분된다.
+// Hibernate Statistics 값을 읽으므로 hibernate.generate_statistics: true 가 필요하다. (local 프로필)
+// 통계가 꺼져 있으면 영역별 메트릭은 0만 나오므로 등록하지 않고 hibernate.statistics.enabled 게이지(0/1)로 알린다.
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory emf;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        Gauge.builder("hibernate.statistics.enabled", statistics, s -> s.isStatisticsEnabled() ? 1 : 0)
+                .register(registry);
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+
+            FunctionCounter.builder("hibernate.cache.second_level", regionStatistics, CacheRegionStatistics::getHitCount)
+                    .tags("region", region, "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.second_level", regionStatistics, CacheRegionStatistics::getMissCount)
+                    .tags("region", region, "result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.second_level.puts", regionStatistics, CacheRegionStatistics::getPutCount)
+                    .tags("region", region)
+                    .register(registry);
+            Gauge.builder("hibernate.cache.second_level.hit.ratio", regionStatistics, SecondLevelCacheMetrics::hitRatio)
+                    .tags("region", region)
+                    .register(registry);
+        }
+    }
+
+    private static double hitRatio(CacheRegionStatistics statistics) {
+        long total = statistics.getHitCount() + statistics.getMissCount();
+        return total == 0 ? 0 : (double) statistics.getHitCount() / total;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.okquerydsl.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// 가상 스레드가 캐리어 스레드에 고정(pinning)된 채로 블로킹되면 그동안 캐리어 스레드를 다른 가상 스레드가 쓰지 못한다.
+// synchronized 블록 안에서의 I/O가 대표적이다. (JDBC 드라이버, 커넥션 풀 내부 등)
+// JFR jdk.VirtualThreadPinned 이벤트를 스트리밍으로 받아서
+//  - jvm.threads.virtual.pinned 타이머로 건수와 고정 시간을 기록하고
+//  - 처음 보는 스택은 WARN 로그로 남긴다. (같은 스택은 한 번만)
+// spring.threads.virtual.enabled=true 이고 Java 21 이상일 때만 등록된다.
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Timer pinned;
+    private final Duration threshold;
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry,
+                                       @Value("${app.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("virtual thread pinned to its carrier while blocking")
+                .register(registry);
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+
+        String stack = stackOf(event.getStackTrace());
+        if (reportedStacks.add(stack)) {
+            log.warn("virtual thread pinned for {}ms on {}\n{}",
+                    event.getDuration().toMillis(), event.getThread() == null ? "?" : event.getThread().getJavaName(), stack);
+        }
+    }
+
+    private static String stackOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "(no stack trace)";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::frame)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.okquerydsl.readmodel;
+
+import com.example.okquerydsl.datasource.WorkloadContext;
+import com.example.okquerydsl.datasource.WorkloadType;
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.dto.UsernameMatch;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.example.okquerydsl.repository.cache.MemberSearchKey;
+import com.example.okquerydsl.repository.cache.SharedCaches;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.example.okquerydsl.entity.QMember.member;
+import static com.example.okquerydsl.entity.QTeam.team;
+
+// MemberTeamDto 조회 전용 메모리 컬럼 저장소 (member.read-model.enabled=true 일 때만 사용)
+// 회원 한 명을 엔티티 대신 배열 한 칸씩으로 저장한다. (id long, age int, 회원명 사전 코드 int, team id long)
+// 팀 이름은 team id -> 이름 맵으로 따로 두므로 팀 이름이 바뀌어도 회원 row는 그대로다.
+//
+// 검색은 조건별로 배열을 순서대로 훑으면서 선택 벡터(조건을 만족하는 row 번호)를 좁혀간다.
+//  - 분기 없는 루프라서 JIT이 벡터화하기 좋고, 회원명 조건은 사전 크기만큼만 문자열 비교를 한다.
+//
+// EntityChangeEvent(Hibernate post-commit 리스너)로 커밋된 변경을 반영하고, 벌크 연산이 커밋되면 다시 적재한다.
+// 적재 전이나 쓰기 트랜잭션 안에서는 null을 반환해서 DB 조회를 하게 한다.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "member.read-model", name = "enabled", havingValue = "true")
+public class MemberColumnStore {
+
+    private static final long NO_TEAM = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+
+    private final JPAQueryFactory queryFactory;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final AtomicLong bulkGeneration = new AtomicLong();
+    private volatile boolean ready;
+
+    // 아래 필드는 lock으로 보호된다.
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] ages = new int[INITIAL_CAPACITY];
+    private int[] usernameCodes = new int[INITIAL_CAPACITY];
+    private long[] teamIds = new long[INITIAL_CAPACITY];
+    private int size;
+    private final LongIntMap rowById = new LongIntMap(INITIAL_CAPACITY);
+    private final StringDictionary usernames = new StringDictionary();
+    private final Map<Long, String> teamNames = new HashMap<>();
+    // 적재 중에 DELETE 이벤트로 지운 회원. 이미 읽어둔 청크에 남아 있어도 다시 넣지 않는다.
+    private final LongIntMap deletedDuringLoad = new LongIntMap(16);
+
+    // 검색마다 회원 수만큼 선택 벡터를 만들지 않도록 다 쓴 배열을 돌려받아 재사용한다.
+    // 읽기 락은 여러 스레드가 같이 잡으므로 배열은 동시에 검색하는 수만큼만 생긴다. (스레드마다 하나씩 들고 있지 않는다)
+    private final ConcurrentLinkedDeque<int[]> selections = new ConcurrentLinkedDeque<>();
+
+    public MemberColumnStore(JPAQueryFactory queryFactory, MeterRegistry meterRegistry) {
+        this.queryFactory = queryFactory;
+        Gauge.builder("member.read-model.rows", this, store -> store.size)
+                .register(meterRegistry);
+        Gauge.builder("member.read-model.bytes", this, MemberColumnStore::estimatedBytes)
+                .description("approximate heap used by columns and the id map (dictionary strings excluded)")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        loadAsync();
+    }
+
+    // 조건에 맞는 회원. null이면 저장소를 쓸 수 없으므로 DB에서 조회해야 한다.
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        if (!ready) {
+            // 적재 중 벌크 연산이 커밋되어 적재 결과를 버린 경우 다시 적재한다.
+            loadAsync();
+            return null;
+        }
+        if (!SharedCaches.isUsable()) {
+            return null;
+        }
+
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        lock.readLock().lock();
+        try {
+            int[] selection = borrowSelection(size);
+            try {
+                int count = selectByAge(selection,
+                        key.getAgeGoe() == null ? Integer.MIN_VALUE : key.getAgeGoe(),
+                        key.getAgeLoe() == null ? Integer.MAX_VALUE : key.getAgeLoe());
+                if (key.getUsername() != null) {
+                    count = filterByUsername(selection, count, key.getUsername(), key.getUsernameMatch());
+                }
+                if (key.getTeamName() != null) {
+                    count = filterByTeam(selection, count, teamIdsNamed(key.getTeamName()));
+                }
+                return materialize(selection, count);
+            } finally {
+                selections.push(selection);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 회원 수보다 작은 배열은 버리고 여유 있게 새로 만든다. (회원이 한 명 늘 때마다 다시 만들지 않도록)
+    private int[] borrowSelection(int capacity) {
+        int[] selection = selections.poll();
+        if (selection == null || selection.length < capacity) {
+            return new int[capacity + (capacity >> 3)];
+        }
+        return selection;
+    }
+
+    private int selectByAge(int[] selection, int ageGoe, int ageLoe) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            int age = ages[row];
+            selection[count] = row;
+            count += (age >= ageGoe & age <= ageLoe) ? 1 : 0;
+        }
+        return count;
+    }
+
+    private int filterByUsername(int[] selection, int count, String username, UsernameMatch match) {
+        if (match == UsernameMatch.EXACT) {
+            int code = usernames.codeOf(username);
+            if (code == StringDictionary.NULL_CODE) {
+                return 0;
+            }
+            int filtered = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                selection[filtered] = row;
+                filtered += usernameCodes[row] == code ? 1 : 0;
+            }
+            return filtered;
+        }
+
+        boolean[] matches = usernames.matching(name -> match.matches(username, name));
+        int filtered = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            int code = usernameCodes[row];
+            selection[filtered] = row;
+            filtered += code != StringDictionary.NULL_CODE && matches[code] ? 1 : 0;
+        }
+        return filtered;
+    }
+
+    private int filterByTeam(int[] selection, int count, long[] wanted) {
+        int filtered = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            long teamId = teamIds[row];
+            boolean match = false;
+            for (long id : wanted) {
+                match |= teamId == id;
+            }
+            selection[filtered] = row;
+            filtered += match ? 1 : 0;
+        }
+        return filtered;
+    }
+
+    // 팀 이름은 unique가 아니다.
+    private long[] teamIdsNamed(String teamName) {
+        return teamNames.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(teamName))
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+    }
+
+    private List<MemberTeamDto> materialize(int[] selection, int count) {
+        List<MemberTeamDto> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            long teamId = teamIds[row];
+            result.add(new MemberTeamDto(
+                    ids[row],
+                    usernames.decode(usernameCodes[row]),
+                    ages[row],
+                    teamId == NO_TEAM ? null : teamId,
+                    teamId == NO_TEAM ? null : teamNames.get(teamId)));
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        boolean aboutMember = event.isAbout(Member.class);
+        if (!aboutMember && !event.isAbout(Team.class) || !ready && !loading.get()) {
+            return;
+        }
+
+        if (event.isBulk()) {
+            bulkGeneration.incrementAndGet();
+            ready = false;
+            loadAsync();
+            return;
+        }
+
+        Long id = (Long) event.getId();
+        lock.writeLock().lock();
+        try {
+            if (aboutMember && event.getType() == EntityChangeEvent.Type.DELETE) {
+                remove(id);
+                if (loading.get()) {
+                    deletedDuringLoad.put(id, 0);
+                }
+            } else if (aboutMember) {
+                upsert(id, (String) event.getValue("username"), (Integer) event.getValue("age"), teamIdOf(event.getValue("team")));
+            } else if (event.getType() == EntityChangeEvent.Type.DELETE) {
+                teamNames.remove(id);
+            } else {
+                teamNames.put(id, (String) event.getValue("name"));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void loadAsync() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+
+        // 회원 전체를 읽으므로 REPORTING 풀을 쓴다.
+        Thread thread = new Thread(() -> {
+            try {
+                WorkloadContext.run(WorkloadType.REPORTING, this::load);
+            } catch (RuntimeException e) {
+                log.warn("member read model load failed", e);
+            } finally {
+                loading.set(false);
+            }
+        }, "member-read-model-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // 팀 전체를 읽고 회원은 id 순서로 LOAD_CHUNK_SIZE 건씩 읽는다.
+    // 적재 중에 들어온 이벤트는 바로 반영되므로, 이미 있는 회원은 덮어쓰지 않고 그 사이 삭제된 회원은 다시 넣지 않는다.
+    // (청크를 읽은 뒤 반영하기 전에 DELETE 이벤트가 먼저 오면 청크에는 지워진 회원이 남아 있다)
+    private void load() {
+        long startGeneration = bulkGeneration.get();
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            rowById.clear();
+            deletedDuringLoad.clear();
+            usernames.clear();
+            teamNames.clear();
+            for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+                teamNames.put(row.get(team.id), row.get(team.name));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<Tuple> rows = fetchChunk(lastId);
+
+            lock.writeLock().lock();
+            try {
+                for (Tuple row : rows) {
+                    Long id = row.get(member.id);
+                    if (rowById.get(id) < 0 && deletedDuringLoad.get(id) < 0) {
+                        Long teamId = row.get(member.team.id);
+                        upsert(id, row.get(member.username), row.get(member.age), teamId == null ? NO_TEAM : teamId);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            if (rows.size() < LOAD_CHUNK_SIZE) {
+                break;
+            }
+            lastId = rows.get(rows.size() - 1).get(member.id);
+        }
+
+        lock.writeLock().lock();
+        try {
+            deletedDuringLoad.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (bulkGeneration.get() != startGeneration) {
+            return;
+        }
+        ready = true;
+        log.info("member read model loaded: {} members, {} usernames, {} teams, ~{}KB, {}ms",
+                size, usernames.size(), teamNames.size(), estimatedBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // id가 afterId보다 큰 회원을 id 순서로 LOAD_CHUNK_SIZE 건
+    List<Tuple> fetchChunk(long afterId) {
+        return queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .where(member.id.gt(afterId))
+                .orderBy(member.id.asc())
+                .limit(LOAD_CHUNK_SIZE)
+                .fetch();
+    }
+
+    private void upsert(long id, String username, int age, long teamId) {
+        int row = rowById.get(id);
+        if (row < 0) {
+            ensureCapacity(size + 1);
+            row = size++;
+            ids[row] = id;
+            rowById.put(id, row);
+        }
+        ages[row] = age;
+        usernameCodes[row] = usernames.encode(username);
+        teamIds[row] = teamId;
+    }
+
+    // 마지막 row를 지운 자리로 옮긴다. (row 순서는 보장하지 않는다)
+    private void remove(long id) {
+        int row = rowById.get(id);
+        if (row < 0) {
+            return;
+        }
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            ages[row] = ages[last];
+            usernameCodes[row] = usernameCodes[last];
+            teamIds[row] = teamIds[last];
+            rowById.put(ids[row], row);
+        }
+        rowById.remove(id);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        ages = Arrays.copyOf(ages, newCapacity);
+        usernameCodes = Arrays.copyOf(usernameCodes, newCapacity);
+        teamIds = Arrays.copyOf(teamIds, newCapacity);
+    }
+
+    private static long teamIdOf(Object team) {
+        if (team == null) {
+            return NO_TEAM;
+        }
+        // 초기화되지 않은 프록시도 id는 알고 있다.
+        if (team instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getInternalIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+
+    private double estimatedBytes() {
+        // id(8) + age(4) + 회원명 코드(4) + team id(8) / id 맵 키(8) + 값(4)
+        return (double) ids.length * (8 + 4 + 4 + 8) + (double) rowById.capacity() * (8 + 4);
+    }
+}
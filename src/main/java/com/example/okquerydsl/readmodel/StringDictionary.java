@@ -0,0 +1,54 @@
+package com.example.okquerydsl.readmodel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// 문자열 사전 인코딩: 같은 문자열은 한 번만 저장하고 row에는 int 코드만 둔다.
+// 코드는 지우지 않는다. (쓰이지 않는 값은 전체 재적재 시 정리된다)
+final class StringDictionary {
+
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        return codes.computeIfAbsent(value, v -> {
+            values.add(v);
+            return values.size() - 1;
+        });
+    }
+
+    int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? NULL_CODE : code;
+    }
+
+    String decode(int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    // 코드별 조건 만족 여부. 사전 크기만큼만 문자열 비교를 하고 row 스캔은 코드로 한다.
+    boolean[] matching(Predicate<String> predicate) {
+        boolean[] matches = new boolean[values.size()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = predicate.test(values.get(code));
+        }
+        return matches;
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    void clear() {
+        codes.clear();
+        values.clear();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.okquerydsl.repository;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.MemberTeamDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// MemberCustomRepository 검색의 비동기 버전
+// 호출마다 별도의 readOnly 트랜잭션에서 실행되므로 호출자 트랜잭션의 커밋되지 않은 변경은 보이지 않는다.
+// 전용 스레드 풀이 가득 차면 TaskRejectedException으로 실패한 future를 반환한다.
+public interface MemberAsyncRepository {
+    CompletableFuture<List<MemberTeamDto>> search(MemberSearchCondition condition);
+    CompletableFuture<Page<MemberTeamDto>> searchPage(MemberSearchCondition condition, Pageable pageable);
+}
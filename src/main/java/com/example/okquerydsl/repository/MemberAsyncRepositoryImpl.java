@@ -0,0 +1,72 @@
+package com.example.okquerydsl.repository;
+
+import com.example.okquerydsl.datasource.WorkloadContext;
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.MemberTeamDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+@Repository
+public class MemberAsyncRepositoryImpl implements MemberAsyncRepository {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ThreadPoolTaskExecutor executor;
+
+    public MemberAsyncRepositoryImpl(MemberRepository memberRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${member.async.pool-size:8}") int poolSize,
+                                     @Value("${member.async.queue-capacity:200}") int queueCapacity) {
+        this.memberRepository = memberRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+
+        // 커넥션 풀보다 크게 잡으면 스레드가 커넥션을 기다리기만 하므로 풀 크기 이하로 둔다.
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(poolSize);
+        this.executor.setMaxPoolSize(poolSize);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("member-async-");
+        this.executor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "member.async");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<List<MemberTeamDto>> search(MemberSearchCondition condition) {
+        return supplyAsync(() -> memberRepository.search(condition));
+    }
+
+    @Override
+    public CompletableFuture<Page<MemberTeamDto>> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        return supplyAsync(() -> memberRepository.searchPageComplex(condition, pageable));
+    }
+
+    // 작업마다 트랜잭션을 열고 닫는다. -> future가 완료되었을 때는 커넥션이 이미 반납되어 있다.
+    // 호출한 스레드의 작업 종류(WorkloadContext)를 넘긴다.
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(WorkloadContext.propagate(() -> readOnlyTx.execute(status -> query.get())), executor);
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.okquerydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+
+import java.util.function.Consumer;
+
+// 대상 row를 id 순서로 chunkSize 건씩 나눠서 실행하는 벌크 연산
+// 한 번에 update/delete 하면 대상 row 전체에 락을 오래 잡고, 이후 em.clear()로 영속성 컨텍스트 전체를 비워야 한다.
+// 여기서는 chunk 마다 짧은 트랜잭션(REQUIRES_NEW)으로 커밋하고, 실제로 바뀐 Member만 영속성 컨텍스트에서 내린다.
+// member 2차 캐시 영역은 Hibernate가 chunk 마다 전체를 비운다.
+// 변경 이벤트(EntityChangeEvent BULK)는 chunk 마다가 아니라 모든 chunk가 끝난 뒤 한 번 발행된다.
+//
+// - predicate는 member 컬럼만 사용해야 한다. (update/delete 문은 조인을 할 수 없다)
+// - chunk는 각각 커밋되므로 중간에 실패하면 앞 chunk의 변경은 남는다.
+// - chunk 트랜잭션은 호출한 쪽 트랜잭션의 커밋되지 않은 변경을 보지 못한다.
+//
+// memberRepository.bulkUpdate(member.age.lt(99), update -> update.set(member.username, "비회원"));
+public interface MemberBulkRepository {
+    long bulkUpdate(Predicate predicate, Consumer<JPAUpdateClause> assignments);
+    long bulkUpdate(Predicate predicate, Consumer<JPAUpdateClause> assignments, int chunkSize);
+    long bulkDelete(Predicate predicate);
+    long bulkDelete(Predicate predicate, int chunkSize);
+}
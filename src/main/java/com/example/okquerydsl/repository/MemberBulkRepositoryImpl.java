@@ -0,0 +1,155 @@
+package com.example.okquerydsl.repository;
+
+import com.example.okquerydsl.datasource.Workload;
+import com.example.okquerydsl.datasource.WorkloadType;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.event.BulkMutationStatementInspector;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.example.okquerydsl.entity.QMember.member;
+
+@Workload(WorkloadType.BULK)
+public class MemberBulkRepositoryImpl implements MemberBulkRepository {
+
+    private final EntityManagerFactory emf;
+    private final JPAQueryFactory queryFactory;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionTemplate chunkTx;
+    private final int defaultChunkSize;
+
+    public MemberBulkRepositoryImpl(EntityManagerFactory emf,
+                                    JPAQueryFactory queryFactory,
+                                    ApplicationEventPublisher publisher,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${member.bulk.chunk-size:1000}") int defaultChunkSize) {
+        this.emf = emf;
+        this.queryFactory = queryFactory;
+        this.publisher = publisher;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    @Override
+    public long bulkUpdate(Predicate predicate, Consumer<JPAUpdateClause> assignments) {
+        return bulkUpdate(predicate, assignments, defaultChunkSize);
+    }
+
+    @Override
+    public long bulkUpdate(Predicate predicate, Consumer<JPAUpdateClause> assignments, int chunkSize) {
+        return inChunks(predicate, chunkSize, ids -> {
+            JPAUpdateClause update = queryFactory
+                    .update(member)
+                    .where(predicate, member.id.in(ids));
+            assignments.accept(update);
+            return update.execute();
+        });
+    }
+
+    @Override
+    public long bulkDelete(Predicate predicate) {
+        return bulkDelete(predicate, defaultChunkSize);
+    }
+
+    @Override
+    public long bulkDelete(Predicate predicate, int chunkSize) {
+        return inChunks(predicate, chunkSize, ids -> queryFactory
+                .delete(member)
+                .where(predicate, member.id.in(ids))
+                .execute());
+    }
+
+    // 대상 row의 id를 keyset(id > 마지막 id)으로 chunkSize 건씩 읽어서 그 id들만 update/delete 한다.
+    // id 범위로 나누면 id가 띄엄띄엄할 때(pooled-lo 블록, 재시작, 여러 인스턴스, 삭제) 빈 트랜잭션이 많아지고 chunk 크기도 들쭉날쭉해진다.
+    // 바뀐 값이 다시 조건에 맞더라도 id가 마지막 id 이후인 것만 읽으므로 같은 row를 두 번 처리하지 않는다.
+    private long inChunks(Predicate predicate, int chunkSize, ChunkOperation operation) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+
+        Set<Class<?>> bulkTargets = new HashSet<>();
+        try {
+            return BulkMutationStatementInspector.deferTo(bulkTargets, () -> {
+                long affected = 0;
+                long lastId = Long.MIN_VALUE;
+                while (true) {
+                    long afterId = lastId;
+                    Chunk chunk = chunkTx.execute(status -> {
+                        List<Long> ids = queryFactory
+                                .select(member.id)
+                                .from(member)
+                                .where(predicate, member.id.gt(afterId))
+                                .orderBy(member.id.asc())
+                                .limit(chunkSize)
+                                .fetch();
+                        return new Chunk(ids, ids.isEmpty() ? 0 : operation.execute(ids));
+                    });
+
+                    detach(chunk.ids);
+                    affected += chunk.count;
+                    if (chunk.ids.size() < chunkSize) {
+                        return affected;
+                    }
+                    lastId = chunk.ids.get(chunk.ids.size() - 1);
+                }
+            });
+        } finally {
+            // chunk마다 내지 않고 모아둔 BULK 이벤트를 한 번만 발행한다. (모든 chunk 트랜잭션이 끝난 뒤)
+            // 중간에 실패했더라도 앞 chunk는 커밋되었으므로 발행한다.
+            bulkTargets.forEach(entityType -> publisher.publishEvent(EntityChangeEvent.bulk(entityType)));
+        }
+    }
+
+    // em.clear()로 전체를 비우는 대신 바뀐 Member만 영속성 컨텍스트에서 내린다.
+    // 호출한 쪽에 트랜잭션(또는 OSIV)으로 묶인 영속성 컨텍스트가 있을 때만 detach 한다.
+    // 2차 캐시는 Hibernate가 벌크 update/delete를 실행할 때마다 member 영역 전체(와 team.members 컬렉션 영역)를 비우므로
+    // 바뀐 id만 골라서 내릴 수는 없다. -> 벌크 연산 이후 member 2차 캐시는 chunk 마다 처음부터 다시 채워진다.
+    private void detach(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (em == null) {
+            return;
+        }
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(Member.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal()
+                    .getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                em.detach(managed);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkOperation {
+        long execute(List<Long> ids);
+    }
+
+    private record Chunk(List<Long> ids, long count) {
+    }
+}
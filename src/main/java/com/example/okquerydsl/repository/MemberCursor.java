@@ -0,0 +1,93 @@
+package com.example.okquerydsl.repository;
+
+import com.example.okquerydsl.dto.MemberTeamDto;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static com.example.okquerydsl.entity.QMember.member;
+import static org.springframework.util.StringUtils.hasText;
+
+// keyset(seek) 페이징의 위치 정보
+// 마지막으로 읽은 row의 정렬키를 기억해두고 다음 페이지는 where 절로 그 이후부터 읽는다. -> offset 처럼 앞의 row를 버리지 않는다.
+// 클라이언트에게는 정렬키를 그대로 노출하지 않고 불투명한 토큰으로 인코딩해서 내려준다.
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class MemberCursor {
+
+    public enum SortKey {
+        ID,     // (member.id)
+        AGE     // (member.age, member.id) - age가 같으면 id로 순서를 보장한다.
+    }
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SortKey sortKey;
+    private final Integer age;
+    private final Long id;
+
+    public static MemberCursor first(SortKey sortKey) {
+        return new MemberCursor(sortKey, null, null);
+    }
+
+    public static MemberCursor after(SortKey sortKey, MemberTeamDto last) {
+        return new MemberCursor(sortKey, last.getAge(), last.getMemberId());
+    }
+
+    // 토큰이 없으면 첫 페이지, 있으면 토큰에 담긴 정렬키를 따른다.
+    public static MemberCursor decode(String token, SortKey defaultSortKey) {
+        if (!hasText(token)) {
+            return first(defaultSortKey);
+        }
+
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split(":");
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            if (sortKey == SortKey.ID && parts.length == 2) {
+                return new MemberCursor(sortKey, null, Long.parseLong(parts[1]));
+            }
+            if (sortKey == SortKey.AGE && parts.length == 3) {
+                return new MemberCursor(sortKey, Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            // base64, enum, 숫자 파싱 실패 모두 아래에서 같은 예외로 처리
+        }
+        throw new IllegalArgumentException("invalid cursor: " + token);
+    }
+
+    public String encode() {
+        String raw = sortKey == SortKey.ID
+                ? sortKey + ":" + id
+                : sortKey + ":" + age + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    // 첫 페이지면 null을 반환해서 where 절에서 무시되도록 한다.
+    BooleanExpression seek() {
+        if (isFirst()) {
+            return null;
+        }
+        if (sortKey == SortKey.ID) {
+            return member.id.gt(id);
+        }
+        return member.age.gt(age)
+                .or(member.age.eq(age).and(member.id.gt(id)));
+    }
+
+    OrderSpecifier<?>[] orderBy() {
+        if (sortKey == SortKey.ID) {
+            return new OrderSpecifier<?>[]{member.id.asc()};
+        }
+        return new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()};
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.okquerydsl.repository;
 
+import com.example.okquerydsl.dto.CursorPage;
 import com.example.okquerydsl.dto.MemberSearchCondition;
 import com.example.okquerydsl.dto.MemberTeamDto;
 import org.springframework.data.domain.Page;
@@ -11,4 +12,6 @@ public interface MemberCustomRepository {
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable);
+    CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor cursor, int size);
 }
@@ -1,31 +1,52 @@
 package com.example.okquerydsl.repository;
 
+import com.example.okquerydsl.datasource.Workload;
+import com.example.okquerydsl.datasource.WorkloadType;
 import com.example.okquerydsl.dto.MemberSearchCondition;
 import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.dto.UsernameMatch;
+import com.example.okquerydsl.repository.cache.MemberSearchCache;
+import com.example.okquerydsl.repository.cache.UsernameIndex;
 import com.example.okquerydsl.dto.QMemberTeamDto;
 import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.readmodel.MemberColumnStore;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static com.example.okquerydsl.entity.QMember.*;
 import static com.example.okquerydsl.entity.QTeam.*;
+import static com.example.okquerydsl.repository.support.NullSafePredicates.*;
 import static org.springframework.util.StringUtils.hasText;
 
 @Repository
 @RequiredArgsConstructor
 public class MemberJpaRepository {
 
+    // 스트리밍 조회시 JDBC 드라이버가 한 번에 가져올 row 수
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryBuilder searchQueryBuilder;
+    private final MemberSearchCache searchCache;
+    private final UsernameIndex usernameIndex;
+    // member.read-model.enabled=true 일 때만 있다.
+    private final Optional<MemberColumnStore> columnStore;
 
     public void save(Member member) {
         em.persist(member);
@@ -41,6 +62,7 @@ public class MemberJpaRepository {
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAll_querydsl() {
         return queryFactory
                 .selectFrom(member)
@@ -94,42 +116,66 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    // 메모리 컬럼 저장소를 쓸 수 있으면 DB를 거치지 않는다.
+    // 그 외에는 반복되는 검색 조건이 대부분이므로 결과 캐시를 먼저 확인한다.
+    // 페이징 없이 전체를 읽으므로 REPORTING 풀을 쓴다. -> 페이지 검색(INTERACTIVE)의 커넥션을 가져가지 않는다.
+    @Workload(WorkloadType.REPORTING)
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        List<MemberTeamDto> fromReadModel = columnStore
+                .map(store -> store.search(condition))
+                .orElse(null);
+        if (fromReadModel != null) {
+            return fromReadModel;
+        }
+        return searchCache.search(condition);
+    }
+
+    // 회원명 자동완성: prefix로 시작하는 회원명을 사전순으로 최대 limit개 (대소문자 구분 없음)
+    // 메모리 인덱스를 쓸 수 없을 때만 DB에서 like로 찾는다.
+    @Transactional(readOnly = true)
+    public List<String> autocomplete(String prefix, int limit) {
+        if (!hasText(prefix)) {
+            return List.of();
+        }
+
+        List<String> indexed = usernameIndex.complete(prefix, limit);
+        if (indexed != null) {
+            return indexed;
+        }
+        // lower(username)에 인덱스가 없으면 전체 스캔이다. H2는 함수 인덱스를 지원하지 않으므로
+        // 운영 DB에서는 함수 인덱스를 따로 만들어야 한다. (PostgreSQL: create index on member (lower(username) text_pattern_ops))
         return queryFactory
-                .select(
-                        Projections.constructor(
-                            MemberTeamDto.class,
-                            member.id,
-                            member.username,
-                            member.age,
-                            team.id,
-                            team.name
-                ))
+                .select(member.username)
+                .distinct()
                 .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+                .where(Expressions.booleanTemplate("lower({0}) like {1} escape '!'",
+                        member.username, UsernameMatch.PREFIX.likePattern(prefix)))
+                .orderBy(member.username.asc())
+                .limit(limit)
                 .fetch();
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    // 조회 결과를 List로 모으지 않고 한 row씩 consumer에 넘긴다. -> 결과 건수와 상관없이 메모리 사용량이 일정하다.
+    // DTO로 바로 조회하므로 영속성 컨텍스트에 엔티티가 쌓이지 않는다. (엔티티 조회였다면 주기적으로 detach/clear 필요)
+    // 커서를 열어둔 채로 읽어야 하므로 트랜잭션(커넥션)이 consumer 처리가 끝날 때까지 유지된다.
+    @Workload(WorkloadType.REPORTING)
+    @Transactional(readOnly = true)
+    public void searchStream(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer) {
+        try (Stream<MemberTeamDto> rows = searchQueryBuilder
+                .content(condition)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .stream()) {
+            rows.forEach(consumer);
+        }
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    private BooleanExpression usernameEq(String username) {
+        return eq(member.username, username);
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    private BooleanExpression teamNameEq(String teamName) {
+        return eq(team.name, teamName);
     }
 
     // BooleanExpression을 사용해서 where 절 파라미터 방식으로 동적쿼리 조건 메서드를 만들면 한눈에 파악이 되고 재사용성이 있다.
@@ -145,11 +191,9 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
-    private BooleanBuilder ageBetween(int ageLoe, int ageGoe) {
-        BooleanBuilder builder = new BooleanBuilder();
-        return builder
-                .and(ageLoe(ageLoe))
-                .and(ageGoe(ageGoe));
+    // 한쪽 값만 있어도 동작한다. (BooleanBuilder 할당 없음)
+    private BooleanExpression ageBetween(Integer ageGoe, Integer ageLoe) {
+        return between(member.age, ageGoe, ageLoe);
     }
 
     // ****************** //
@@ -173,6 +217,11 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /**
+     * 조건이 빠질 때마다 IllegalArgumentException이 생성(스택트레이스 포함)되므로 비싸다.
+     * @deprecated NullSafePredicates 사용 (값을 먼저 확인해서 예외 없이 null 반환)
+     */
+    @Deprecated
     public static BooleanBuilder nullSafeBuilder(Supplier<BooleanExpression> f) {
         try {
             return new BooleanBuilder(f.get());
@@ -181,17 +230,11 @@ public class MemberJpaRepository {
         }
     }
 
-    private BooleanBuilder usernameBeq(String username) {
-        return nullSafeBuilder(() -> member.username.eq(username));
-    }
-
-    private BooleanBuilder teamNameBeq(String teamName) {
-        return nullSafeBuilder(() -> team.name.eq(teamName));
-    }
-
-    private BooleanBuilder userAndTeamName(MemberSearchCondition condition) {
-        return usernameBeq(condition.getUsername())
-                .and(teamNameBeq(condition.getTeamName()));
+    private Predicate userAndTeamName(MemberSearchCondition condition) {
+        return allOf(
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName())
+        );
     }
 
 }
@@ -2,60 +2,23 @@ package com.example.okquerydsl.repository;
 
 import com.example.okquerydsl.dto.MemberSearchCondition;
 import com.example.okquerydsl.dto.MemberTeamDto;
-import com.querydsl.core.types.Projections;
-import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.example.okquerydsl.repository.cache.MemberSearchCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
-import static com.example.okquerydsl.entity.QMember.member;
-import static com.example.okquerydsl.entity.QTeam.team;
-import static org.springframework.util.StringUtils.hasText;
-
 @Repository
 @RequiredArgsConstructor
 public class MemberQueryRepository {
 
-    private final JPAQueryFactory queryFactory;
+    private final MemberSearchCache searchCache;
 
     // 쿼리가 API 스펙에 종속적이거나 재사용성이 없다면 repository 계층에 두는것 보다 다른 계층으로 분리해서 두는것이 유지보수에 좋을 수 있다.
+    // 반복되는 검색 조건이 대부분이므로 결과 캐시를 먼저 확인한다.
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(
-                        Projections.constructor(
-                                MemberTeamDto.class,
-                                member.id,
-                                member.username,
-                                member.age,
-                                team.id,
-                                team.name
-                        ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
-    }
-
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+        return searchCache.search(condition);
     }
 }
@@ -7,11 +7,12 @@ import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import java.util.List;
 
 // MemberRepository <<interface>> -- extends --> JpaRepository <<interface>>, MemberCustomRepository <<interface>> (MemberRepositoryImpl)
+//                                             MemberBulkRepository <<interface>> (MemberBulkRepositoryImpl)
 
 // QuerydslPredicateExecutor을 JPARepository에서 extends 받아서 사용할 수 있다.
 // SpringDataJpa의 method들 파라미터에 Querydsl의 Predicate를 넘겨서 필터링 하는것이 가능하다.
 // Predicate: where절 조건문
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberCustomRepository, QuerydslPredicateExecutor<Member> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberCustomRepository, MemberBulkRepository, QuerydslPredicateExecutor<Member> {
     List<Member> findByUsername(String username);
 }
 
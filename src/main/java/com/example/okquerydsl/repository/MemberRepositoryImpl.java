@@ -1,15 +1,20 @@
 package com.example.okquerydsl.repository;
 
+import com.example.okquerydsl.advisor.SearchShapeRecorder;
+import com.example.okquerydsl.datasource.Workload;
+import com.example.okquerydsl.datasource.WorkloadType;
+import com.example.okquerydsl.dto.CursorPage;
 import com.example.okquerydsl.dto.MemberSearchCondition;
 import com.example.okquerydsl.dto.MemberTeamDto;
 import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.repository.cache.MemberCountCache;
+import com.example.okquerydsl.repository.cache.MemberSearchKey;
+import com.example.okquerydsl.repository.cache.MemberSearchCache;
+import com.example.okquerydsl.repository.support.ConcurrentPageExecutor;
 import com.querydsl.core.QueryResults;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.JPQLQuery;
-import com.querydsl.jpa.impl.JPAQuery;
-import com.querydsl.jpa.impl.JPAQueryFactory;
-import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -17,12 +22,14 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static com.example.okquerydsl.entity.QMember.member;
 import static com.example.okquerydsl.entity.QTeam.team;
-import static org.springframework.util.StringUtils.hasText;
+import static com.example.okquerydsl.repository.support.NullSafePredicates.*;
 
 // QuerydslRepositorySupport
 // custom repository 구현체에서 위의 추상클래스를 상속받으면 QueryDsl를 편하게 사용할 수 있는 기능들을 지원한다,
@@ -35,78 +42,40 @@ import static org.springframework.util.StringUtils.hasText;
 
 // queryFactory를 지원하지 않고 스프링 데이터 jpa가 지원하는 sort 기능이 정상적으로 동작하지 않는다.
 
+@Workload(WorkloadType.INTERACTIVE)
 public class MemberRepositoryImpl extends QuerydslRepositorySupport implements MemberCustomRepository {
 
-    private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryBuilder searchQueryBuilder;
+    private final MemberSearchTemplates searchTemplates;
+    private final MemberSearchCache searchCache;
+    private final MemberCountCache countCache;
+    private final ConcurrentPageExecutor concurrentPageExecutor;
+    private final SearchShapeRecorder shapeRecorder;
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(MemberSearchQueryBuilder searchQueryBuilder, MemberSearchTemplates searchTemplates,
+                                MemberSearchCache searchCache, MemberCountCache countCache,
+                                ConcurrentPageExecutor concurrentPageExecutor, SearchShapeRecorder shapeRecorder) {
         super(Member.class);
-        this.queryFactory = new JPAQueryFactory(em);
+        this.searchQueryBuilder = searchQueryBuilder;
+        this.searchTemplates = searchTemplates;
+        this.searchCache = searchCache;
+        this.countCache = countCache;
+        this.concurrentPageExecutor = concurrentPageExecutor;
+        this.shapeRecorder = shapeRecorder;
     }
 
+    // 조회 전용 메서드는 readOnly 트랜잭션으로 실행한다. -> 읽기/쓰기 분리 시 레플리카로 라우팅된다.
     @Override
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-
-        List<MemberTeamDto> result = from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .select(
-                        Projections.constructor(
-                                MemberTeamDto.class,
-                                member.id,
-                                member.username,
-                                member.age,
-                                team.id,
-                                team.name
-                        ))
-                .fetch();
-
-        return queryFactory
-                .select(
-                        Projections.constructor(
-                                MemberTeamDto.class,
-                                member.id,
-                                member.username,
-                                member.age,
-                                team.id,
-                                team.name
-                        ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+        return searchCache.search(condition);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = queryFactory
-                .select(
-                        Projections.constructor(
-                                MemberTeamDto.class,
-                                member.id,
-                                member.username,
-                                member.age,
-                                team.id,
-                                team.name
-                        ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        QueryResults<MemberTeamDto> results = searchQueryBuilder
+                .content(condition)
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetchResults();
@@ -147,58 +116,74 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
-                .select(
-                        Projections.constructor(
-                                MemberTeamDto.class,
-                                member.id,
-                                member.username,
-                                member.age,
-                                team.id,
-                                team.name
-                        ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+        // 검색 조건 모양별로 미리 만들어 둔 JPQL에 값만 바인딩해서 실행한다.
+        List<MemberTeamDto> content = searchTemplates.fetch(condition, pageable.getOffset(), pageable.getPageSize());
 
 //        return new PageImpl<>(content, pageable, total);
         // PageableExecutionUtils.getPage 를 사용해서 count query 함수를 넘기면 count 쿼리를 하지 않아도 되는 상황일 때는 count query를 날리지 않음
-        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchFirst());
+        // count가 필요한 경우에도 같은 조건으로 이미 구한 count가 있다면 캐시를 사용한다. -> 페이지를 넘길 때는 content 쿼리 하나만 나감
+        // count 쿼리는 team 컬럼이 필요 없으므로 조인 없이 member 테이블만 조회한다.
+        return PageableExecutionUtils.getPage(content, pageable, () -> countCache.get(condition, () -> searchTemplates.count(condition)));
+    }
+
+    // searchPageComplex와 같은 쿼리를 content, count 동시에 실행한다.
+    // 각자 readOnly 트랜잭션을 따로 열어야 하므로 이 메서드 자체는 트랜잭션을 걸지 않는다.
+    // count가 캐시되어 있으면 count 스레드 없이 content 쿼리만 실행한다.
+    @Override
+    public Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable) {
+        Supplier<List<MemberTeamDto>> content = () -> searchTemplates.fetch(condition, pageable.getOffset(), pageable.getPageSize());
+        Long cachedTotal = countCache.getIfPresent(condition);
+        if (cachedTotal != null) {
+            return concurrentPageExecutor.getPage(pageable, content, cachedTotal);
+        }
+        return concurrentPageExecutor.getPage(pageable, content,
+                () -> countCache.get(condition, () -> searchTemplates.count(condition)));
+    }
+
+    // keyset 페이징
+    // offset은 앞의 row를 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다.
+    // 마지막 row의 정렬키 이후부터 읽으면 몇 번째 페이지든 인덱스를 타고 size + 1 건만 읽는다.
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must not be less than one: " + size);
+        }
+        List<MemberTeamDto> content = shapeRecorder.record(
+                MemberSearchKey.of(condition).shape(),
+                SearchShapeRecorder.Sort.valueOf(cursor.getSortKey().name()),
+                () -> searchQueryBuilder
+                        .content(condition)
+                        .where(cursor.seek())
+                        .orderBy(cursor.orderBy())
+                        .limit(size + 1)
+                        .fetch());
+
+        // 한 건을 더 조회해서 다음 페이지가 있는지 판단한다. (count 쿼리 없음)
+        if (content.size() <= size) {
+            return new CursorPage<>(content, null);
+        }
+
+        List<MemberTeamDto> page = content.subList(0, size);
+        String nextCursor = MemberCursor.after(cursor.getSortKey(), page.get(size - 1)).encode();
+        return new CursorPage<>(page, nextCursor);
     }
 
     private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+        return eq(member.username, username);
     }
 
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return eq(team.name, teamName);
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+        return goe(member.age, ageGoe);
     }
 
     private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+        return loe(member.age, ageLoe);
     }
 }
@@ -0,0 +1,105 @@
+package com.example.okquerydsl.repository;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.dto.UsernameMatch;
+import com.example.okquerydsl.repository.cache.TeamNameDictionary;
+import com.example.okquerydsl.repository.cache.UsernameIndex;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static com.example.okquerydsl.entity.QMember.member;
+import static com.example.okquerydsl.entity.QTeam.team;
+import static com.example.okquerydsl.repository.support.NullSafePredicates.*;
+import static org.springframework.util.StringUtils.hasText;
+
+// MemberSearchCondition 검색 쿼리 조립
+// 팀 이름 조건은 team.name 비교 대신 팀 id 사전으로 바꿔서 member.team_id 비교로 처리한다.
+// -> where 절이 member 테이블만 보게 되므로 count 쿼리는 team을 조인하지 않는다.
+// -> content 쿼리는 팀 id, 이름을 projection 해야 하므로 left join을 유지한다.
+@Component
+@RequiredArgsConstructor
+public class MemberSearchQueryBuilder {
+
+    private final JPAQueryFactory queryFactory;
+    private final TeamNameDictionary teamNameDictionary;
+    private final UsernameIndex usernameIndex;
+
+    public JPAQuery<MemberTeamDto> content(MemberSearchCondition condition) {
+        return queryFactory
+                .select(
+                        Projections.constructor(
+                                MemberTeamDto.class,
+                                member.id,
+                                member.username,
+                                member.age,
+                                team.id,
+                                team.name
+                        ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where(condition));
+    }
+
+    public JPAQuery<Long> count(MemberSearchCondition condition) {
+        return queryFactory
+                .select(member.count())
+                .from(member)
+                .where(where(condition));
+    }
+
+    public Predicate[] where(MemberSearchCondition condition) {
+        return new Predicate[]{
+                username(condition.getUsername(), condition.getUsernameMatch()),
+                teamIdIn(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        };
+    }
+
+    // PREFIX, CONTAINS는 메모리 인덱스로 후보 id를 구하고 like로 한 번 더 확인한다.
+    // 인덱스를 쓸 수 없으면 like만 사용한다. (member 전체 스캔)
+    private BooleanExpression username(String username, UsernameMatch match) {
+        if (match == null || match == UsernameMatch.EXACT || !hasText(username)) {
+            return eq(member.username, username);
+        }
+
+        BooleanExpression like = Expressions.booleanTemplate("lower({0}) like {1} escape '!'",
+                member.username, match.likePattern(username));
+        List<Long> memberIds = usernameIndex.idsOf(username, match);
+        if (memberIds == null) {
+            return like;
+        }
+        return memberIds.isEmpty()
+                ? Expressions.asBoolean(true).isFalse()
+                : member.id.in(memberIds).and(like);
+    }
+
+    private BooleanExpression teamIdIn(String teamName) {
+        if (!hasText(teamName)) {
+            return null;
+        }
+
+        List<Long> teamIds = teamNameDictionary.idsOf(teamName);
+        // 해당 이름의 팀이 없으면 결과도 없다. (in () 은 JPQL 문법 오류라서 항상 거짓인 조건으로 대신함)
+        return teamIds.isEmpty()
+                ? Expressions.asBoolean(true).isFalse()
+                : member.team.id.in(teamIds);
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return goe(member.age, ageGoe);
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return loe(member.age, ageLoe);
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.okquerydsl.repository;
+
+import com.example.okquerydsl.advisor.SearchShapeRecorder;
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.dto.UsernameMatch;
+import com.example.okquerydsl.repository.cache.MemberSearchKey;
+import com.example.okquerydsl.repository.cache.TeamNameDictionary;
+import com.example.okquerydsl.repository.cache.UsernameIndex;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.example.okquerydsl.entity.QMember.member;
+import static com.example.okquerydsl.entity.QTeam.team;
+import static com.example.okquerydsl.repository.cache.MemberSearchKey.*;
+
+// 검색 조건 모양별로 미리 만들어 둔 JPQL
+// 검색 조건은 4개 필드의 유무와 회원명 검색 방식 조합밖에 없으므로, 모양마다 한 번만 Querydsl 표현식 트리를 만들고 JPQL로 직렬화해둔다.
+// 요청마다 Param 자리에 값만 바인딩하면 되므로 BooleanExpression, Projections 생성과 직렬화 비용이 없어진다.
+// 같은 JPQL 문자열이 재사용되므로 Hibernate의 쿼리 플랜 캐시도 항상 적중한다.
+@Component
+public class MemberSearchTemplates {
+
+    private static final Param<String> USERNAME_PARAM = new Param<>(String.class, "username");
+    private static final Param<String> USERNAME_PATTERN_PARAM = new Param<>(String.class, "usernamePattern");
+    @SuppressWarnings("rawtypes")
+    private static final Param<Collection> MEMBER_IDS_PARAM = new Param<>(Collection.class, "memberIds");
+    @SuppressWarnings("rawtypes")
+    private static final Param<Collection> TEAM_IDS_PARAM = new Param<>(Collection.class, "teamIds");
+    private static final Param<Integer> AGE_GOE_PARAM = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE_PARAM = new Param<>(Integer.class, "ageLoe");
+
+    private static final ConstructorExpression<MemberTeamDto> PROJECTION = Projections.constructor(
+            MemberTeamDto.class,
+            member.id,
+            member.username,
+            member.age,
+            team.id,
+            team.name
+    );
+
+    // 회원명 PREFIX, CONTAINS 조건을 메모리 인덱스로 후보 id로 바꾼 경우 (MemberSearchKey.shape 위의 비트)
+    private static final int MEMBER_IDS = SHAPE_COUNT;
+
+    private final EntityManager em;
+    private final TeamNameDictionary teamNameDictionary;
+    private final UsernameIndex usernameIndex;
+    private final SearchShapeRecorder shapeRecorder;
+    private final AtomicReferenceArray<Template> templates = new AtomicReferenceArray<>(SHAPE_COUNT * 2);
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer buildTimer;
+
+    public MemberSearchTemplates(EntityManager em, TeamNameDictionary teamNameDictionary, UsernameIndex usernameIndex,
+                                 SearchShapeRecorder shapeRecorder, MeterRegistry meterRegistry) {
+        this.em = em;
+        this.teamNameDictionary = teamNameDictionary;
+        this.usernameIndex = usernameIndex;
+        this.shapeRecorder = shapeRecorder;
+        this.hits = meterRegistry.counter("member.search.template", "result", "hit");
+        this.misses = meterRegistry.counter("member.search.template", "result", "miss");
+        this.buildTimer = meterRegistry.timer("member.search.template.build");
+        // 템플릿 적중 횟수 x 평균 생성(표현식 트리 + 직렬화) 시간 = 아낀 시간
+        meterRegistry.gauge("member.search.template.saved.seconds", this,
+                t -> t.hits.count() * t.buildTimer.mean(TimeUnit.SECONDS));
+    }
+
+    public List<MemberTeamDto> fetch(MemberSearchCondition condition) {
+        return fetch(condition, null, null);
+    }
+
+    public List<MemberTeamDto> fetch(MemberSearchCondition condition, Long offset, Integer limit) {
+        Binding binding = bind(MemberSearchKey.of(condition));
+        if (binding == null) {
+            return List.of();
+        }
+
+        Template template = template(binding.shape);
+        Query query = em.createQuery(template.content);
+        JPAUtil.setConstants(query, template.contentConstants, binding.params);
+        if (offset != null) {
+            query.setFirstResult(Math.toIntExact(offset));
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        List<?> rows = shapeRecorder.record(binding.shape & ~MEMBER_IDS, SearchShapeRecorder.Sort.NONE, query::getResultList);
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(PROJECTION.newInstance((Object[]) row));
+        }
+        return result;
+    }
+
+    public long count(MemberSearchCondition condition) {
+        Binding binding = bind(MemberSearchKey.of(condition));
+        if (binding == null) {
+            return 0;
+        }
+
+        Template template = template(binding.shape);
+        Query query = em.createQuery(template.count);
+        JPAUtil.setConstants(query, template.countConstants, binding.params);
+        return (Long) shapeRecorder.recordCount(binding.shape & ~MEMBER_IDS, query::getSingleResult);
+    }
+
+    // 해당 이름의 팀이 없거나 회원명 인덱스에 후보가 없으면 결과가 없으므로 쿼리를 실행하지 않는다. (null 반환)
+    private Binding bind(MemberSearchKey key) {
+        int shape = key.shape();
+        Map<ParamExpression<?>, Object> params = new HashMap<>();
+        if (key.getUsername() != null && key.getUsernameMatch() == UsernameMatch.EXACT) {
+            params.put(USERNAME_PARAM, key.getUsername());
+        } else if (key.getUsername() != null) {
+            params.put(USERNAME_PATTERN_PARAM, key.getUsernameMatch().likePattern(key.getUsername()));
+            List<Long> memberIds = usernameIndex.idsOf(key.getUsername(), key.getUsernameMatch());
+            if (memberIds != null) {
+                if (memberIds.isEmpty()) {
+                    return null;
+                }
+                params.put(MEMBER_IDS_PARAM, memberIds);
+                shape |= MEMBER_IDS;
+            }
+        }
+        if (key.getTeamName() != null) {
+            List<Long> teamIds = teamNameDictionary.idsOf(key.getTeamName());
+            if (teamIds.isEmpty()) {
+                return null;
+            }
+            params.put(TEAM_IDS_PARAM, teamIds);
+        }
+        if (key.getAgeGoe() != null) {
+            params.put(AGE_GOE_PARAM, key.getAgeGoe());
+        }
+        if (key.getAgeLoe() != null) {
+            params.put(AGE_LOE_PARAM, key.getAgeLoe());
+        }
+        return new Binding(shape, params);
+    }
+
+    private Template template(int shape) {
+        Template template = templates.get(shape);
+        if (template != null) {
+            hits.increment();
+            return template;
+        }
+
+        misses.increment();
+        // 동시에 같은 모양을 처음 만들면 둘 다 만들 수 있지만 결과가 같으므로 문제 없다.
+        Template built = buildTimer.record(() -> build(shape));
+        templates.compareAndSet(shape, null, built);
+        return templates.get(shape);
+    }
+
+    private Template build(int shape) {
+        Predicate[] where = where(shape);
+
+        QueryMetadata content = new JPAQuery<Void>()
+                .select(PROJECTION)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where)
+                .getMetadata();
+
+        // count 쿼리는 where 절이 member 컬럼만 보므로 조인하지 않는다.
+        QueryMetadata count = new JPAQuery<Void>()
+                .select(member.count())
+                .from(member)
+                .where(where)
+                .getMetadata();
+
+        JPQLSerializer contentSerializer = serialize(content);
+        JPQLSerializer countSerializer = serialize(count);
+        return new Template(
+                contentSerializer.toString(), contentSerializer.getConstants(),
+                countSerializer.toString(), countSerializer.getConstants());
+    }
+
+    private JPQLSerializer serialize(QueryMetadata metadata) {
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(metadata, false, null);
+        return serializer;
+    }
+
+    private Predicate[] where(int shape) {
+        boolean usernameLike = (shape & (USERNAME_PREFIX | USERNAME_CONTAINS)) != 0;
+        return new Predicate[]{
+                (shape & USERNAME) != 0 && !usernameLike ? member.username.eq(USERNAME_PARAM) : null,
+                (shape & MEMBER_IDS) != 0 ? Expressions.booleanTemplate("{0} in {1}", member.id, MEMBER_IDS_PARAM) : null,
+                usernameLike ? Expressions.booleanTemplate("lower({0}) like {1} escape '!'", member.username, USERNAME_PATTERN_PARAM) : null,
+                (shape & TEAM_NAME) != 0 ? teamIdIn() : null,
+                (shape & AGE_GOE) != 0 ? member.age.goe(AGE_GOE_PARAM) : null,
+                (shape & AGE_LOE) != 0 ? member.age.loe(AGE_LOE_PARAM) : null
+        };
+    }
+
+    // 팀 이름은 팀 id 목록으로 바꿔서 비교한다. (MemberSearchQueryBuilder.teamIdIn 과 동일)
+    private BooleanExpression teamIdIn() {
+        return Expressions.booleanTemplate("{0} in {1}", member.team.id, TEAM_IDS_PARAM);
+    }
+
+    @RequiredArgsConstructor
+    private static class Template {
+        private final String content;
+        private final List<Object> contentConstants;
+        private final String count;
+        private final List<Object> countConstants;
+    }
+
+    @RequiredArgsConstructor
+    private static class Binding {
+        private final int shape;
+        private final Map<ParamExpression<?>, Object> params;
+    }
+}
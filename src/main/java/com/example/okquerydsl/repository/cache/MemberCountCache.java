@@ -0,0 +1,110 @@
+package com.example.okquerydsl.repository.cache;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// 페이징 검색의 total count 캐시
+// 같은 검색 조건이면 몇 페이지를 보든 count는 같으므로 조건별로 한 번만 count 쿼리를 날린다.
+// Member, Team이 변경(벌크 연산 포함)되어 커밋되면 전체를 비운다.
+// 캐시할 count는 primary에서 구한다. (SharedCaches.fill)
+@Component
+public class MemberCountCache {
+
+    private final Map<MemberSearchKey, Long> counts = new ConcurrentHashMap<>();
+    // 무효화 세대. count 쿼리 도중 무효화가 일어났다면 그 결과는 캐시에 남기지 않는다.
+    private final AtomicLong generation = new AtomicLong();
+    private final int maximumSize;
+    // 이미 레플리카 커넥션을 쓰는 트랜잭션에서 primary count를 구할 때 쓰는 새 트랜잭션
+    private final TransactionTemplate primaryTx;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    public MemberCountCache(MeterRegistry meterRegistry,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${member.search.count-cache.maximum-size:10000}") int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.primaryTx = new TransactionTemplate(transactionManager);
+        this.primaryTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.primaryTx.setReadOnly(true);
+        this.hits = meterRegistry.counter("member.search.count.cache", "result", "hit");
+        this.misses = meterRegistry.counter("member.search.count.cache", "result", "miss");
+        this.invalidations = meterRegistry.counter("member.search.count.cache.invalidations");
+    }
+
+    public long get(MemberSearchCondition condition, LongSupplier countQuery) {
+        if (!SharedCaches.isUsable()) {
+            return countQuery.getAsLong();
+        }
+
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        Long cached = counts.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long startGeneration = generation.get();
+        long count = SharedCaches.isFillable()
+                ? SharedCaches.fill(countQuery::getAsLong)
+                : countOnPrimary(countQuery);
+
+        if (counts.size() >= maximumSize) {
+            counts.clear();
+        }
+        counts.put(key, count);
+        // put 직전에 무효화가 끼어들었을 수 있으므로 넣은 뒤에 다시 확인한다.
+        if (generation.get() != startGeneration) {
+            counts.remove(key, count);
+        }
+        return count;
+    }
+
+    // content 쿼리를 이미 레플리카에서 실행한 트랜잭션(searchPageComplex)은 커넥션을 바꿀 수 없으므로 새 트랜잭션을 열어 primary에서 count 한다.
+    // 레플리카 커넥션을 쓰고 있다면 읽기/쓰기 분리가 켜져 있는 것이므로 새 커넥션은 다른 풀(primary)에서 얻는다. -> 같은 풀을 두 번 잡지 않는다.
+    private long countOnPrimary(LongSupplier countQuery) {
+        return SharedCaches.fill(() -> primaryTx.execute(status -> countQuery.getAsLong()));
+    }
+
+    // 캐시된 count가 있으면 반환하고 없으면 null (count 쿼리를 실행하지 않는다)
+    public Long getIfPresent(MemberSearchCondition condition) {
+        if (!SharedCaches.isUsable()) {
+            return null;
+        }
+        Long cached = counts.get(MemberSearchKey.of(condition));
+        if (cached != null) {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.isAbout(Member.class) || event.isAbout(Team.class)) {
+            invalidate();
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        counts.clear();
+        invalidations.increment();
+    }
+}
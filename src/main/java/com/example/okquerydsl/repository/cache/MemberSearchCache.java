@@ -0,0 +1,158 @@
+package com.example.okquerydsl.repository.cache;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.example.okquerydsl.repository.MemberSearchTemplates;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+// 검색 결과(List<MemberTeamDto>) 캐시
+// - Caffeine(W-TinyLFU)으로 자주 쓰이는 검색 조건만 남기고, 결과 row 수를 가중치로 써서 큰 결과가 캐시를 독차지하지 않게 한다.
+// - refreshAfterWrite: 만료 시점에 요청을 막지 않고 이전 결과를 반환하면서 백그라운드에서 다시 조회한다. (stale-while-revalidate)
+// - 커밋된 Member, Team 변경 이벤트를 받으면 변경된 row가 포함될 수 있는 검색 조건만 골라서 비운다.
+// - 조회(로드, refresh) 도중 무효화가 있었다면 변경 전 row를 읽었을 수 있으므로 그 결과는 캐시에 남기지 않는다. (MemberCountCache와 같은 세대 확인)
+// - 캐시를 채우는 조회는 레플리카가 아니라 primary에서 한다. (SharedCaches.fill)
+// - MemberTeamDto는 수정할 수 있으므로(@Data) 캐시에는 불변 row로 담고, 꺼낼 때마다 새 DTO로 만들어 반환한다.
+//   (한 요청이 DTO를 고쳐도 다른 요청이 받는 결과는 바뀌지 않는다)
+@Component
+public class MemberSearchCache {
+
+    private final MemberSearchTemplates searchTemplates;
+    private final LoadingCache<MemberSearchKey, List<CachedRow>> cache;
+    // 무효화 세대
+    private final AtomicLong generation = new AtomicLong();
+
+    public MemberSearchCache(MemberSearchTemplates searchTemplates,
+                             MeterRegistry meterRegistry,
+                             @Value("${member.search.result-cache.maximum-weight:100000}") long maximumWeight,
+                             @Value("${member.search.result-cache.refresh-after-write:30s}") Duration refreshAfterWrite,
+                             @Value("${member.search.result-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.searchTemplates = searchTemplates;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((MemberSearchKey key, List<CachedRow> rows) -> rows.size() + 1)
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(this::loadIfCurrent);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "member.search.result");
+    }
+
+    // 캐시를 쓰지 않는 조회 결과는 요청마다 새로 만든 것이므로 그대로 반환한다.
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        if (!SharedCaches.isUsable()) {
+            return searchTemplates.fetch(key.toCondition());
+        }
+
+        if (!SharedCaches.isFillable()) {
+            List<CachedRow> cached = cache.getIfPresent(key);
+            return cached != null ? toDtos(cached) : searchTemplates.fetch(key.toCondition());
+        }
+
+        long startGeneration = generation.get();
+        List<CachedRow> rows = cache.get(key);
+        if (rows == null) {
+            // 로드 도중 무효화되어 캐시에 넣지 않은 경우 -> 캐시 없이 다시 조회한다.
+            return searchTemplates.fetch(key.toCondition());
+        }
+        // 로더의 확인 이후, 캐시에 들어가기 직전에 무효화가 끼어들었을 수 있으므로 꺼낸 뒤에 다시 확인한다.
+        if (generation.get() != startGeneration) {
+            cache.asMap().remove(key, rows);
+        }
+        return toDtos(rows);
+    }
+
+    // null을 반환하면 Caffeine은 값을 저장하지 않는다. (refresh였다면 기존 값을 지운다)
+    private List<CachedRow> loadIfCurrent(MemberSearchKey key) {
+        long startGeneration = generation.get();
+        List<CachedRow> rows = SharedCaches.fill(() -> searchTemplates.fetch(key.toCondition()))
+                .stream()
+                .map(CachedRow::of)
+                .toList();
+        return generation.get() == startGeneration ? rows : null;
+    }
+
+    private static List<MemberTeamDto> toDtos(List<CachedRow> rows) {
+        List<MemberTeamDto> dtos = new ArrayList<>(rows.size());
+        for (CachedRow row : rows) {
+            dtos.add(row.toDto());
+        }
+        return dtos;
+    }
+
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.isAbout(Member.class) || event.isAbout(Team.class)) {
+            generation.incrementAndGet();
+        }
+        if (event.isBulk() && (event.isAbout(Member.class) || event.isAbout(Team.class))) {
+            cache.invalidateAll();
+        } else if (event.isAbout(Member.class)) {
+            onMemberChange(event);
+        } else if (event.isAbout(Team.class)) {
+            onTeamChange(event);
+        }
+    }
+
+    // 변경 전 상태나 변경 후 상태 중 하나라도 조건에 맞으면 그 검색 결과가 달라진다.
+    private void onMemberChange(EntityChangeEvent event) {
+        if (event.getType() == EntityChangeEvent.Type.UPDATE && event.getOldState() == null) {
+            cache.invalidateAll();
+            return;
+        }
+
+        Predicate<MemberSearchKey> affected = key -> false;
+        if (event.getState() != null) {
+            affected = affected.or(matching(event.getValue("username"), event.getValue("age"), event.getValue("team")));
+        }
+        if (event.getOldState() != null) {
+            affected = affected.or(matching(event.getOldValue("username"), event.getOldValue("age"), event.getOldValue("team")));
+        }
+        cache.asMap().keySet().removeIf(affected);
+    }
+
+    private Predicate<MemberSearchKey> matching(Object username, Object age, Object team) {
+        // 초기화되지 않은 프록시는 커밋 이후라 이름을 읽을 수 없으므로 모든 팀 조건에 해당한다고 본다.
+        boolean teamNameKnown = team == null || Hibernate.isInitialized(team);
+        String teamName = team != null && teamNameKnown ? ((Team) team).getName() : null;
+        return key -> key.matches((String) username, (Integer) age, teamName, teamNameKnown);
+    }
+
+    // 팀 이름이 바뀌면 그 팀 이름으로 검색한 결과와, 팀 조건 없이 검색해서 팀 이름이 함께 담긴 결과가 달라진다.
+    private void onTeamChange(EntityChangeEvent event) {
+        Object name = event.getValue("name");
+        Object oldName = event.getOldValue("name");
+        cache.asMap().keySet().removeIf(key -> key.getTeamName() == null
+                || Objects.equals(key.getTeamName(), name)
+                || Objects.equals(key.getTeamName(), oldName));
+    }
+
+    // 캐시에 담는 검색 결과 한 건 (불변)
+    private record CachedRow(Long memberId, String username, int age, Long teamId, String teamName) {
+
+        static CachedRow of(MemberTeamDto dto) {
+            return new CachedRow(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(), dto.getTeamName());
+        }
+
+        MemberTeamDto toDto() {
+            return new MemberTeamDto(memberId, username, age, teamId, teamName);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.okquerydsl.repository.cache;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.UsernameMatch;
+import lombok.Value;
+
+import static org.springframework.util.StringUtils.hasText;
+
+// MemberSearchCondition을 캐시 키로 쓰기 위해 정규화한 값
+// 검색 조건 메서드(usernameEq ...)와 같은 규칙으로 빈 문자열은 조건 없음(null)으로 본다.
+@Value
+public class MemberSearchKey {
+    String username;
+    String teamName;
+    Integer ageGoe;
+    Integer ageLoe;
+    UsernameMatch usernameMatch;   // username이 없으면 null
+
+    public static MemberSearchKey of(MemberSearchCondition condition) {
+        boolean hasUsername = hasText(condition.getUsername());
+        return new MemberSearchKey(
+                hasUsername ? condition.getUsername() : null,
+                hasText(condition.getTeamName()) ? condition.getTeamName() : null,
+                condition.getAgeGoe(),
+                condition.getAgeLoe(),
+                !hasUsername ? null : condition.getUsernameMatch() == null ? UsernameMatch.EXACT : condition.getUsernameMatch()
+        );
+    }
+
+    // 검색 조건 모양: 각 조건의 유무와 회원명 검색 방식을 비트로 표현
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+    // username 조건이 있을 때 검색 방식 (둘 다 없으면 EXACT)
+    public static final int USERNAME_PREFIX = 1 << 4;
+    public static final int USERNAME_CONTAINS = 1 << 5;
+    public static final int SHAPE_COUNT = 1 << 6;
+
+    public int shape() {
+        return (username != null ? USERNAME : 0)
+                | (usernameMatch == UsernameMatch.PREFIX ? USERNAME_PREFIX : 0)
+                | (usernameMatch == UsernameMatch.CONTAINS ? USERNAME_CONTAINS : 0)
+                | (teamName != null ? TEAM_NAME : 0)
+                | (ageGoe != null ? AGE_GOE : 0)
+                | (ageLoe != null ? AGE_LOE : 0);
+    }
+
+    public MemberSearchCondition toCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setUsernameMatch(usernameMatch);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+
+    // 해당 값을 가진 회원이 이 조건의 검색 결과에 포함되는지
+    // teamName을 알 수 없으면(null 이면서 unknown) 팀 조건은 만족한다고 본다.
+    public boolean matches(String memberUsername, int memberAge, String memberTeamName, boolean teamNameKnown) {
+        return (username == null || usernameMatch.matches(username, memberUsername))
+                && (teamName == null || !teamNameKnown || teamName.equals(memberTeamName))
+                && (ageGoe == null || memberAge >= ageGoe)
+                && (ageLoe == null || memberAge <= ageLoe);
+    }
+}
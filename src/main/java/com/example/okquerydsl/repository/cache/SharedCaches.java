@@ -0,0 +1,29 @@
+package com.example.okquerydsl.repository.cache;
+
+import com.example.okquerydsl.datasource.PrimaryReads;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+public abstract class SharedCaches {
+
+    private SharedCaches() {
+    }
+
+    // 쓰기 트랜잭션 안에서는 아직 커밋되지 않은 데이터를 보고 있을 수 있다.
+    // 그 결과를 공유 캐시에 넣으면 롤백 이후에도 다른 요청에 보이게 되므로 이때는 캐시를 읽지도 채우지도 않는다.
+    public static boolean isUsable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    // 캐시를 채우는 조회는 primary에서 한다. (읽기/쓰기 분리 시 레플리카는 무효화 시점에 아직 변경 전일 수 있다)
+    // 현재 트랜잭션이 이미 레플리카 커넥션을 쓰고 있으면 primary에서 읽을 수 없으므로 캐시를 채우지 않는다.
+    public static boolean isFillable() {
+        return isUsable() && PrimaryReads.isAvailable();
+    }
+
+    public static <T> T fill(Supplier<T> loader) {
+        return PrimaryReads.call(loader);
+    }
+}
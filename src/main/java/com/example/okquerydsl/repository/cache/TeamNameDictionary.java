@@ -0,0 +1,77 @@
+package com.example.okquerydsl.repository.cache;
+
+import com.example.okquerydsl.entity.Team;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.okquerydsl.entity.QTeam.team;
+
+// 팀 이름 -> 팀 id 사전
+// 팀 이름으로 검색할 때 team을 조인해서 이름을 비교하는 대신 member.team_id 컬럼만으로 비교할 수 있게 해준다.
+// 팀 이름은 unique가 아니므로 id 목록을 가진다.
+@Component
+public class TeamNameDictionary {
+
+    private final JPAQueryFactory queryFactory;
+    private final Map<String, List<Long>> ids = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maximumSize;
+
+    public TeamNameDictionary(JPAQueryFactory queryFactory,
+                              @Value("${member.search.team-dictionary.maximum-size:10000}") int maximumSize) {
+        this.queryFactory = queryFactory;
+        this.maximumSize = maximumSize;
+    }
+
+    public List<Long> idsOf(String teamName) {
+        if (!SharedCaches.isUsable()) {
+            return load(teamName);
+        }
+
+        List<Long> cached = ids.get(teamName);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!SharedCaches.isFillable()) {
+            return load(teamName);
+        }
+
+        long startGeneration = generation.get();
+        List<Long> loaded = SharedCaches.fill(() -> load(teamName));
+
+        if (ids.size() >= maximumSize) {
+            ids.clear();
+        }
+        ids.put(teamName, loaded);
+        if (generation.get() != startGeneration) {
+            ids.remove(teamName, loaded);
+        }
+        return loaded;
+    }
+
+    List<Long> load(String teamName) {
+        return List.copyOf(queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(teamName))
+                .fetch());
+    }
+
+    // 팀 추가, 이름 변경, 삭제 모두 사전에 영향을 주므로 전체를 비운다. (팀은 자주 바뀌지 않는다)
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.isAbout(Team.class)) {
+            generation.incrementAndGet();
+            ids.clear();
+        }
+    }
+}
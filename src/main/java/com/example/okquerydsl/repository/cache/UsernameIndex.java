@@ -0,0 +1,606 @@
+package com.example.okquerydsl.repository.cache;
+
+import com.example.okquerydsl.datasource.WorkloadContext;
+import com.example.okquerydsl.datasource.WorkloadType;
+import com.example.okquerydsl.dto.UsernameMatch;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.example.okquerydsl.readmodel.LongIntMap;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.example.okquerydsl.entity.QMember.member;
+
+// 회원명 PREFIX, CONTAINS 검색용 메모리 인덱스 (대소문자 구분 없음)
+//  - 소문자 회원명마다 int 코드를 하나 발급하고(사전 인코딩) 코드 -> 회원 id는 long[], 회원 id -> 코드는 LongIntMap에 둔다.
+//  - prefix: 코드를 소문자 회원명 순으로 정렬한 int[]에서 이진 탐색으로 [prefix, prefix + Character.MAX_VALUE) 구간만 읽는다.
+//    새 회원명은 작은 TreeMap(delta)에 두었다가 DELTA_MERGE_THRESHOLD 개가 쌓이면 정렬 배열에 합친다.
+//  - contains: trigram(연속 3글자) -> 코드 목록(오름차순 int[])을 두고, 가장 짧은 목록의 코드를 나머지 목록에서 이진 탐색해서 교집합을 구한다.
+// 회원이 커밋되면(EntityChangeEvent) 바로 반영되고, 벌크 연산이 커밋되면 다시 만든다.
+// 처음 사용할 때 백그라운드에서 만들며, 만들어지기 전이나 쓰기 트랜잭션 안에서는 null을 반환해서 DB like 검색을 하게 한다.
+// 인덱스가 잠깐 뒤쳐질 수 있으므로 후보 id는 쿼리에서 like 조건으로 한 번 더 확인한다.
+//
+// 힙 사용량 (member.search.username.index.bytes 게이지로 추정치를 볼 수 있다)
+//  - 회원 한 명당 약 35B (회원 id -> 코드 해시 슬롯, 코드의 회원 id 배열)
+//  - 서로 다른 회원명 하나당 약 60B + 글자 수 + trigram 목록 4B x (길이 - 2)
+//    회원명 문자열은 DB에서 읽은 것을 그대로 쓴다. 대문자가 섞인 회원명만 원래 회원명을 따로 가진다.
+//  -> 회원명이 모두 다르고 평균 10글자면 회원 100만 명에 약 150MB
+// 지운 회원명의 코드는 trigram 목록에 남겨두고 검색할 때 건너뛴다. 쓰지 않는 코드가 절반을 넘으면 번호를 다시 매긴다. (compact)
+@Slf4j
+@Component
+public class UsernameIndex {
+
+    private static final int GRAM = 3;
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int DELTA_MERGE_THRESHOLD = 4096;
+    // CONTAINS에서 확인할 코드 수 상한 (max-candidates 배수). 가장 짧은 trigram 목록이 이보다 길면 DB like 검색을 한다.
+    private static final int CONTAINS_SCAN_FACTOR = 64;
+    private static final long[] NO_IDS = new long[0];
+
+    private final JPAQueryFactory queryFactory;
+    private final int maxCandidates;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean building = new AtomicBoolean();
+    // 벌크 연산 세대. 만드는 도중에 벌크 연산이 커밋되었다면 다시 만들어야 한다.
+    private final AtomicLong bulkGeneration = new AtomicLong();
+    private volatile boolean ready;
+
+    // 아래 필드는 lock으로 보호된다.
+    // 코드 -> 소문자 회원명, 회원 id (counts 까지), 원래 회원명 (회원 id와 같은 순서, 모두 소문자 회원명과 같으면 null)
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private long[][] ids = new long[INITIAL_CAPACITY][];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private String[][] originals = new String[INITIAL_CAPACITY][];
+    private int codes;
+    private int liveCodes;
+    // 소문자 회원명 순으로 정렬된 코드
+    private int[] sorted = new int[0];
+    // 아직 sorted에 합치지 않은 소문자 회원명 -> 코드
+    private final TreeMap<String, Integer> delta = new TreeMap<>();
+    private final Map<String, IntList> trigrams = new HashMap<>();
+    private final LongIntMap codeById = new LongIntMap(INITIAL_CAPACITY);
+    // 만드는 중에 DELETE 이벤트로 지운 회원. 이미 읽어둔 청크에 남아 있어도 다시 넣지 않는다.
+    private final LongIntMap deletedDuringBuild = new LongIntMap(16);
+
+    private final Counter indexed;
+    private final Counter fallback;
+
+    public UsernameIndex(JPAQueryFactory queryFactory,
+                         MeterRegistry meterRegistry,
+                         @Value("${member.search.username-index.max-candidates:1000}") int maxCandidates) {
+        this.queryFactory = queryFactory;
+        this.maxCandidates = maxCandidates;
+        this.indexed = meterRegistry.counter("member.search.username.index", "result", "indexed");
+        this.fallback = meterRegistry.counter("member.search.username.index", "result", "fallback");
+        Gauge.builder("member.search.username.index.members", this, index -> index.codeById.size())
+                .register(meterRegistry);
+        Gauge.builder("member.search.username.index.bytes", this, UsernameIndex::estimatedBytes)
+                .description("approximate heap used by the index")
+                .register(meterRegistry);
+    }
+
+    // 검색 조건에 맞는 회원 id 후보. null이면 인덱스를 쓸 수 없으므로 like 검색을 해야 한다.
+    // (준비 전, 쓰기 트랜잭션, 3글자 미만 CONTAINS, 후보가 max-candidates 보다 많을 때)
+    public List<Long> idsOf(String query, UsernameMatch match) {
+        if (!usable()) {
+            fallback.increment();
+            return null;
+        }
+
+        String normalized = UsernameMatch.normalize(query);
+        List<Long> result = new ArrayList<>();
+        boolean complete;
+        lock.readLock().lock();
+        try {
+            complete = switch (match) {
+                case EXACT -> collect(codeOf(normalized), result);
+                case PREFIX -> collectPrefix(normalized, result);
+                case CONTAINS -> collectContains(normalized, result);
+            };
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (!complete) {
+            fallback.increment();
+            return null;
+        }
+        indexed.increment();
+        return result;
+    }
+
+    // prefix로 시작하는 회원명을 사전순으로 limit개 (자동완성). null이면 인덱스를 쓸 수 없다.
+    public List<String> complete(String prefix, int limit) {
+        if (!usable()) {
+            fallback.increment();
+            return null;
+        }
+
+        indexed.increment();
+        String normalized = UsernameMatch.normalize(prefix);
+        Set<String> result = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            // 정렬 배열과 delta를 소문자 회원명 순으로 합치면서 읽는다.
+            int i = lowerBound(normalized);
+            Iterator<Map.Entry<String, Integer>> pending = prefixDelta(normalized).entrySet().iterator();
+            Map.Entry<String, Integer> next = pending.hasNext() ? pending.next() : null;
+            while (result.size() < limit) {
+                boolean inSorted = i < sorted.length && keys[sorted[i]].startsWith(normalized);
+                int code;
+                if (inSorted && (next == null || keys[sorted[i]].compareTo(next.getKey()) <= 0)) {
+                    code = sorted[i++];
+                } else if (next != null) {
+                    code = next.getValue();
+                    next = pending.hasNext() ? pending.next() : null;
+                } else {
+                    break;
+                }
+                for (int k = 0; k < counts[code] && result.size() < limit; k++) {
+                    result.add(originals[code] == null ? keys[code] : originals[code][k]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return List.copyOf(result);
+    }
+
+    private boolean usable() {
+        if (!ready) {
+            buildAsync();
+            return false;
+        }
+        return SharedCaches.isUsable();
+    }
+
+    private boolean collectPrefix(String prefix, List<Long> result) {
+        for (int i = lowerBound(prefix); i < sorted.length && keys[sorted[i]].startsWith(prefix); i++) {
+            if (!collect(sorted[i], result)) {
+                return false;
+            }
+        }
+        for (int code : prefixDelta(prefix).values()) {
+            if (!collect(code, result)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean collectContains(String query, List<Long> result) {
+        if (query.length() < GRAM) {
+            return false;
+        }
+
+        // 목록이 가장 짧은 trigram부터 교집합을 구한다.
+        List<IntList> postings = new ArrayList<>();
+        for (String gram : grams(query)) {
+            IntList posting = trigrams.get(gram);
+            if (posting == null) {
+                return true;
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(IntList::size));
+        IntList shortest = postings.get(0);
+        if (shortest.size() > (long) maxCandidates * CONTAINS_SCAN_FACTOR) {
+            return false;
+        }
+
+        for (int i = 0; i < shortest.size(); i++) {
+            int code = shortest.get(i);
+            if (counts[code] > 0
+                    && containsAll(postings, code)
+                    && keys[code].contains(query)
+                    && !collect(code, result)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsAll(List<IntList> postings, int code) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (!postings.get(i).contains(code)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean collect(int code, List<Long> result) {
+        if (code >= 0) {
+            for (int k = 0; k < counts[code]; k++) {
+                result.add(ids[code][k]);
+            }
+        }
+        return result.size() <= maxCandidates;
+    }
+
+    private int codeOf(String key) {
+        int i = lowerBound(key);
+        if (i < sorted.length && keys[sorted[i]].equals(key)) {
+            return sorted[i];
+        }
+        Integer code = delta.get(key);
+        return code == null ? -1 : code;
+    }
+
+    // 정렬 배열에서 소문자 회원명이 key 이상인 첫 위치
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[sorted[mid]].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private NavigableMap<String, Integer> prefixDelta(String prefix) {
+        return delta.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!event.isAbout(Member.class) || !ready && !building.get()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (event.isBulk()) {
+                bulkGeneration.incrementAndGet();
+                ready = false;
+                clear();
+                return;
+            }
+
+            long id = (Long) event.getId();
+            switch (event.getType()) {
+                case INSERT -> add(id, (String) event.getValue("username"));
+                case UPDATE -> {
+                    remove(id);
+                    add(id, (String) event.getValue("username"));
+                }
+                case DELETE -> {
+                    remove(id);
+                    if (building.get()) {
+                        deletedDuringBuild.put(id, 0);
+                    }
+                }
+                default -> {
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void buildAsync() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+
+        // 회원 전체를 읽으므로 REPORTING 풀을 쓴다.
+        Thread thread = new Thread(() -> {
+            try {
+                WorkloadContext.run(WorkloadType.REPORTING, this::build);
+            } catch (RuntimeException e) {
+                log.warn("username index build failed", e);
+            } finally {
+                building.set(false);
+            }
+        }, "username-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // id 순서로 LOAD_CHUNK_SIZE 건씩 읽는다. (트랜잭션을 길게 잡지 않는다)
+    // 쿼리는 락 밖에서 하고, 읽은 청크를 반영할 때만 쓰기 락을 잡는다.
+    private void build() {
+        long startGeneration = bulkGeneration.get();
+        lock.writeLock().lock();
+        try {
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long started = System.nanoTime();
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<Tuple> rows = queryFactory
+                    .select(member.id, member.username)
+                    .from(member)
+                    .where(member.id.gt(lastId))
+                    .orderBy(member.id.asc())
+                    .limit(LOAD_CHUNK_SIZE)
+                    .fetch();
+            lock.writeLock().lock();
+            try {
+                for (Tuple row : rows) {
+                    long id = row.get(member.id);
+                    // 만드는 중에 이벤트로 먼저 들어온 회원은 그 값을 유지하고, 지워진 회원은 다시 넣지 않는다.
+                    if (codeById.get(id) < 0 && deletedDuringBuild.get(id) < 0) {
+                        add(id, row.get(member.username));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (rows.size() < LOAD_CHUNK_SIZE) {
+                break;
+            }
+            lastId = rows.get(rows.size() - 1).get(member.id);
+        }
+
+        lock.writeLock().lock();
+        try {
+            deletedDuringBuild.clear();
+            mergeDelta();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (bulkGeneration.get() != startGeneration) {
+            return;
+        }
+        ready = true;
+        log.info("username index built: {} members, {} names, {}ms",
+                codeById.size(), liveCodes, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // 아래 메서드는 쓰기 락을 잡고 호출한다.
+
+    private void add(long id, String username) {
+        if (username == null) {
+            return;
+        }
+        String key = UsernameMatch.normalize(username);
+        int code = codeOf(key);
+        if (code < 0) {
+            code = newCode(key);
+        }
+
+        int n = counts[code];
+        if (n == 0) {
+            liveCodes++;
+        }
+        if (ids[code].length == n) {
+            ids[code] = Arrays.copyOf(ids[code], n + (n >> 1) + 1);
+        }
+        ids[code][n] = id;
+        // 원래 회원명이 소문자 회원명과 다를 때만 회원별 원래 회원명을 둔다.
+        String[] names = originals[code];
+        if (names != null || !username.equals(key)) {
+            if (names == null) {
+                names = new String[ids[code].length];
+                Arrays.fill(names, 0, n, key);
+            } else if (names.length < ids[code].length) {
+                names = Arrays.copyOf(names, ids[code].length);
+            }
+            names[n] = username.equals(key) ? key : username;
+            originals[code] = names;
+        }
+        counts[code] = n + 1;
+        codeById.put(id, code);
+    }
+
+    private void remove(long id) {
+        int code = codeById.get(id);
+        if (code < 0) {
+            return;
+        }
+        codeById.remove(id);
+
+        // 마지막 회원 id를 지운 자리로 옮긴다.
+        int last = counts[code] - 1;
+        for (int k = 0; k <= last; k++) {
+            if (ids[code][k] == id) {
+                ids[code][k] = ids[code][last];
+                if (originals[code] != null) {
+                    originals[code][k] = originals[code][last];
+                    originals[code][last] = null;
+                }
+                break;
+            }
+        }
+        counts[code] = last;
+
+        if (last == 0) {
+            liveCodes--;
+            ids[code] = NO_IDS;
+            originals[code] = null;
+            if (codes - liveCodes > Math.max(liveCodes, DELTA_MERGE_THRESHOLD)) {
+                compact();
+            }
+        }
+    }
+
+    // 코드는 늘어나기만 한다. -> trigram 목록에 추가하면 오름차순이 유지된다.
+    private int newCode(String key) {
+        if (codes == keys.length) {
+            grow(codes + (codes >> 1));
+        }
+        int code = codes++;
+        keys[code] = key;
+        ids[code] = NO_IDS;
+        counts[code] = 0;
+        originals[code] = null;
+        for (String gram : grams(key)) {
+            trigrams.computeIfAbsent(gram, g -> new IntList()).add(code);
+        }
+        delta.put(key, code);
+        if (delta.size() >= DELTA_MERGE_THRESHOLD) {
+            mergeDelta();
+        }
+        return code;
+    }
+
+    // 정렬 배열과 delta를 합친다. 쓰지 않는 코드는 여기서 빠진다.
+    private void mergeDelta() {
+        int[] merged = new int[sorted.length + delta.size()];
+        int size = 0;
+        int i = 0;
+        Iterator<Map.Entry<String, Integer>> pending = delta.entrySet().iterator();
+        Map.Entry<String, Integer> next = pending.hasNext() ? pending.next() : null;
+        while (i < sorted.length || next != null) {
+            int code;
+            if (next == null || i < sorted.length && keys[sorted[i]].compareTo(next.getKey()) < 0) {
+                code = sorted[i++];
+            } else {
+                code = next.getValue();
+                next = pending.hasNext() ? pending.next() : null;
+            }
+            if (counts[code] > 0) {
+                merged[size++] = code;
+            }
+        }
+        sorted = Arrays.copyOf(merged, size);
+        delta.clear();
+    }
+
+    // 쓰는 코드에만 소문자 회원명 순으로 번호를 다시 매기고 trigram 목록을 새로 만든다.
+    private void compact() {
+        mergeDelta();
+        int capacity = Math.max(INITIAL_CAPACITY, sorted.length + (sorted.length >> 1));
+        String[] newKeys = new String[capacity];
+        long[][] newIds = new long[capacity][];
+        int[] newCounts = new int[capacity];
+        String[][] newOriginals = new String[capacity][];
+        for (int code = 0; code < sorted.length; code++) {
+            int old = sorted[code];
+            newKeys[code] = keys[old];
+            newIds[code] = ids[old];
+            newCounts[code] = counts[old];
+            newOriginals[code] = originals[old];
+            for (int k = 0; k < counts[old]; k++) {
+                codeById.put(ids[old][k], code);
+            }
+        }
+        keys = newKeys;
+        ids = newIds;
+        counts = newCounts;
+        originals = newOriginals;
+        codes = sorted.length;
+        liveCodes = sorted.length;
+
+        trigrams.clear();
+        for (int code = 0; code < codes; code++) {
+            sorted[code] = code;
+            for (String gram : grams(keys[code])) {
+                trigrams.computeIfAbsent(gram, g -> new IntList()).add(code);
+            }
+        }
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        originals = Arrays.copyOf(originals, capacity);
+    }
+
+    private void clear() {
+        keys = new String[INITIAL_CAPACITY];
+        ids = new long[INITIAL_CAPACITY][];
+        counts = new int[INITIAL_CAPACITY];
+        originals = new String[INITIAL_CAPACITY][];
+        codes = 0;
+        liveCodes = 0;
+        sorted = new int[0];
+        delta.clear();
+        trigrams.clear();
+        codeById.clear();
+        deletedDuringBuild.clear();
+    }
+
+    // 배열 길이 기준 추정치 (객체 헤더 16B, 참조 4B, 문자열은 Latin-1 기준)
+    private double estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = (long) keys.length * 16 + (long) sorted.length * 4 + (long) codeById.capacity() * 12;
+            for (int code = 0; code < codes; code++) {
+                if (counts[code] > 0) {
+                    bytes += 40 + keys[code].length() + 16 + ids[code].length * 8L;
+                    if (originals[code] != null) {
+                        bytes += 16 + originals[code].length * (4L + 40 + keys[code].length());
+                    }
+                }
+            }
+            for (IntList posting : trigrams.values()) {
+                bytes += 32 + posting.capacity() * 4L;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<String> grams(String name) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            grams.add(name.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    // 오름차순 int 목록 (trigram -> 코드)
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return values.length;
+        }
+    }
+}
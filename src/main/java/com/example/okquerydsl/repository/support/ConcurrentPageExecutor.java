@@ -0,0 +1,171 @@
+package com.example.okquerydsl.repository.support;
+
+import com.example.okquerydsl.datasource.WorkloadContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// content 쿼리와 count 쿼리를 동시에 실행해서 Page로 합친다. -> 페이지 응답 시간이 두 쿼리의 합이 아니라 긴 쪽이 된다.
+// 각 쿼리는 별도의 커넥션, 별도의 readOnly 트랜잭션에서 실행된다. (content는 호출 스레드, count는 전용 스레드 풀)
+// PageableExecutionUtils가 count가 필요 없다고 판단하면(마지막 페이지 등) 실행 중인 count 쿼리를 취소한다.
+// count를 이미 알고 있으면(count 캐시) 스레드 풀을 거치지 않는다.
+//
+// 순서대로 실행하는 경우
+//  - 호출자가 이미 트랜잭션 안에 있을 때: 다른 커넥션에서는 호출자의 커밋되지 않은 데이터가 보이지 않는다.
+//  - 스레드에 EntityManager가 이미 열려 있을 때(open-in-view 등): content 트랜잭션이 끝나도 세션이 커넥션을 쥐고 있으므로
+//    그 상태로 count 커넥션을 기다리면 요청마다 커넥션 두 개가 필요해져서 풀이 고갈될 수 있다.
+//  - count 스레드 풀이 가득 찼을 때
+@Component
+public class ConcurrentPageExecutor {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate readOnlyTx;
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+
+    private final Counter concurrent;
+    private final Counter sequential;
+    private final Counter cached;
+    private final Counter cancelled;
+
+    public ConcurrentPageExecutor(PlatformTransactionManager transactionManager,
+                                  EntityManager em,
+                                  EntityManagerFactory emf,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${member.search.concurrent-count.pool-size:8}") int poolSize,
+                                  @Value("${member.search.concurrent-count.queue-capacity:100}") int queueCapacity) {
+        this.em = em;
+        this.emf = emf;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(poolSize);
+        this.executor.setMaxPoolSize(poolSize);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("page-count-");
+        this.executor.initialize();
+
+        this.concurrent = meterRegistry.counter("member.search.page", "mode", "concurrent");
+        this.sequential = meterRegistry.counter("member.search.page", "mode", "sequential");
+        this.cached = meterRegistry.counter("member.search.page", "mode", "cached");
+        this.cancelled = meterRegistry.counter("member.search.page.count.cancelled");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> content, LongSupplier count) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() || TransactionSynchronizationManager.hasResource(emf)) {
+            return sequential(pageable, content, count);
+        }
+
+        // count 쿼리를 실행 중인 세션. 취소할 때 Session.cancelQuery()로 JDBC Statement.cancel()을 보낸다.
+        AtomicReference<Session> countSession = new AtomicReference<>();
+        Future<Long> total;
+        try {
+            // count 쿼리도 content 쿼리와 같은 커넥션 풀을 쓴다.
+            Supplier<Long> countTask = WorkloadContext.propagate(() -> readOnlyTx.execute(status -> {
+                countSession.set(em.unwrap(Session.class));
+                try {
+                    return count.getAsLong();
+                } finally {
+                    countSession.set(null);
+                }
+            }));
+            total = executor.submit(countTask::get);
+        } catch (TaskRejectedException e) {
+            return sequential(pageable, content, count);
+        }
+        concurrent.increment();
+
+        List<T> rows;
+        try {
+            rows = readOnlyTx.execute(status -> content.get());
+        } catch (RuntimeException e) {
+            cancel(total, countSession);
+            throw e;
+        }
+
+        AtomicBoolean countUsed = new AtomicBoolean();
+        Page<T> page = PageableExecutionUtils.getPage(rows, pageable, () -> {
+            countUsed.set(true);
+            return await(total);
+        });
+        if (!countUsed.get()) {
+            cancel(total, countSession);
+        }
+        return page;
+    }
+
+    // total을 이미 알고 있으면 content 쿼리만 실행한다.
+    public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> content, long knownTotal) {
+        cached.increment();
+        List<T> rows = TransactionSynchronizationManager.isActualTransactionActive()
+                ? content.get()
+                : readOnlyTx.execute(status -> content.get());
+        return PageableExecutionUtils.getPage(rows, pageable, () -> knownTotal);
+    }
+
+    private <T> Page<T> sequential(Pageable pageable, Supplier<List<T>> content, LongSupplier count) {
+        sequential.increment();
+        return PageableExecutionUtils.getPage(content.get(), pageable, count);
+    }
+
+    private void cancel(Future<Long> total, AtomicReference<Session> countSession) {
+        if (total.isDone()) {
+            return;
+        }
+        cancelled.increment();
+        // 아직 시작 전이면 실행되지 않는다.
+        total.cancel(false);
+
+        Session session = countSession.get();
+        if (session != null) {
+            try {
+                session.cancelQuery();
+            } catch (RuntimeException e) {
+                // 그 사이에 쿼리가 끝나서 세션이 닫혔다면 취소할 것도 없다.
+            }
+        }
+    }
+
+    private static long await(Future<Long> total) {
+        try {
+            return total.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            total.cancel(true);
+            throw new CancellationException("interrupted while waiting for count query");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
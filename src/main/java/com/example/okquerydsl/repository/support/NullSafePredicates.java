@@ -0,0 +1,74 @@
+package com.example.okquerydsl.repository.support;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+
+import java.util.Collection;
+
+import static org.springframework.util.StringUtils.hasText;
+
+// 동적쿼리 조건 조립
+// 값이 없으면 null을 반환한다. where 절과 allOf, anyOf는 null을 무시하므로 "조건 없음"이 된다.
+// nullSafeBuilder처럼 eq(null)의 IllegalArgumentException을 잡는 방식은 조건이 빠질 때마다 스택트레이스를 가진 예외를 만들기 때문에 비싸다.
+// 여기서는 값을 먼저 확인하므로 예외도, BooleanBuilder 할당도 없다.
+//
+// .where(
+//         eq(member.username, condition.getUsername()),
+//         between(member.age, condition.getAgeGoe(), condition.getAgeLoe())
+// )
+public abstract class NullSafePredicates {
+
+    private NullSafePredicates() {
+    }
+
+    public static <T> BooleanExpression eq(SimpleExpression<T> path, T value) {
+        return value != null ? path.eq(value) : null;
+    }
+
+    // 문자열은 빈 문자열도 조건 없음으로 본다. (검색 폼에서 빈 값으로 넘어오는 경우)
+    public static BooleanExpression eq(StringExpression path, String value) {
+        return hasText(value) ? path.eq(value) : null;
+    }
+
+    public static <T> BooleanExpression in(SimpleExpression<T> path, Collection<? extends T> values) {
+        return values != null && !values.isEmpty() ? path.in(values) : null;
+    }
+
+    public static <T extends Number & Comparable<?>> BooleanExpression goe(NumberExpression<T> path, T value) {
+        return value != null ? path.goe(value) : null;
+    }
+
+    public static <T extends Number & Comparable<?>> BooleanExpression gt(NumberExpression<T> path, T value) {
+        return value != null ? path.gt(value) : null;
+    }
+
+    public static <T extends Number & Comparable<?>> BooleanExpression loe(NumberExpression<T> path, T value) {
+        return value != null ? path.loe(value) : null;
+    }
+
+    public static <T extends Number & Comparable<?>> BooleanExpression lt(NumberExpression<T> path, T value) {
+        return value != null ? path.lt(value) : null;
+    }
+
+    // from <= path <= to, 한쪽만 있으면 그쪽 조건만 적용한다.
+    public static <T extends Number & Comparable<?>> BooleanExpression between(NumberExpression<T> path, T from, T to) {
+        if (from != null && to != null) {
+            return path.between(from, to);
+        }
+        return from != null ? path.goe(from) : loe(path, to);
+    }
+
+    // null인 조건은 빼고 and로 묶는다. 모두 null이면 null
+    public static Predicate allOf(Predicate... predicates) {
+        return ExpressionUtils.allOf(predicates);
+    }
+
+    // null인 조건은 빼고 or로 묶는다. 모두 null이면 null
+    public static Predicate anyOf(Predicate... predicates) {
+        return ExpressionUtils.anyOf(predicates);
+    }
+}
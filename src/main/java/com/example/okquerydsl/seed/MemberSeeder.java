@@ -0,0 +1,176 @@
+package com.example.okquerydsl.seed;
+
+import com.example.okquerydsl.datasource.WorkloadContext;
+import com.example.okquerydsl.datasource.WorkloadType;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// local 프로필 초기 데이터
+// 대량(수천만 건) 데이터를 넣기 위해
+// - chunk 단위로 트랜잭션을 나누고 chunk 마다 flush/clear 해서 영속성 컨텍스트가 커지지 않게 한다.
+// - hibernate.jdbc.batch_size, order_inserts로 insert를 JDBC batch로 묶는다.
+// - 여러 worker가 chunk를 나눠서 병렬로 넣는다.
+// - 애플리케이션 기동(ApplicationReadyEvent)이 끝난 뒤 별도 스레드에서 실행해서 기동을 막지 않는다.
+//
+// @PostConstruct는 AOP 프록시(@Transactional) 생성을 보장해주지 않으므로 TransactionTemplate으로 트랜잭션을 직접 연다.
+@Slf4j
+@Profile("local")
+@Component
+public class MemberSeeder {
+
+    public enum Distribution {
+        ROUND_ROBIN,    // i % teams
+        UNIFORM,        // 무작위 균등
+        SKEWED          // 앞 번호 팀에 몰리도록 (운영 데이터처럼 큰 팀, 작은 팀이 섞이게)
+    }
+
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+
+    private final long members;
+    private final int teams;
+    private final Distribution distribution;
+    private final int workers;
+    private final int chunkSize;
+
+    public MemberSeeder(EntityManager em,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${seed.members:100}") long members,
+                        @Value("${seed.teams:2}") int teams,
+                        @Value("${seed.distribution:ROUND_ROBIN}") Distribution distribution,
+                        @Value("${seed.workers:4}") int workers,
+                        @Value("${seed.chunk-size:1000}") int chunkSize) {
+        this.em = em;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.members = members;
+        this.teams = teams;
+        this.distribution = distribution;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                seed();
+            } catch (RuntimeException e) {
+                log.error("seed failed", e);
+            }
+        }, "member-seeder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // chunk 하나라도 실패하면 남은 chunk는 넣지 않고 예외를 던진다. (앞 chunk는 이미 커밋되어 남는다)
+    public void seed() {
+        long start = System.nanoTime();
+        List<Long> teamIds = tx.execute(status -> saveTeams());
+
+        AtomicLong inserted = new AtomicLong();
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+        progress.scheduleAtFixedRate(() -> logProgress(inserted.get(), start), 5, 5, TimeUnit.SECONDS);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<?>> chunks = new ArrayList<>();
+        try {
+            for (long from = 0; from < members; from += chunkSize) {
+                long chunkStart = from;
+                long chunkEnd = Math.min(members, from + chunkSize);
+                // 적재 스레드마다 BULK 풀을 쓴다. (app.datasource.workload)
+                chunks.add(pool.submit(() -> {
+                    if (failed.get()) {
+                        return;
+                    }
+                    try {
+                        WorkloadContext.run(WorkloadType.BULK, () -> saveMembers(teamIds, chunkStart, chunkEnd));
+                        inserted.addAndGet(chunkEnd - chunkStart);
+                    } catch (RuntimeException | Error e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }));
+            }
+            pool.shutdown();
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("seed failed: " + inserted.get() + "/" + members + " members inserted", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("seed interrupted: " + inserted.get() + "/" + members + " members inserted", e);
+        } finally {
+            pool.shutdownNow();
+            progress.shutdownNow();
+        }
+
+        log.info("seed done: teams={}, members={}", teams, inserted.get());
+        logProgress(inserted.get(), start);
+    }
+
+    private List<Long> saveTeams() {
+        List<Long> ids = new ArrayList<>(teams);
+        for (int i = 0; i < teams; i++) {
+            Team team = new Team(teamName(i));
+            em.persist(team);
+            ids.add(team.getId());
+        }
+        return ids;
+    }
+
+    private void saveMembers(List<Long> teamIds, long from, long to) {
+        // chunk 마다 시드를 고정해서 같은 설정이면 같은 데이터가 만들어지게 한다.
+        SplittableRandom random = new SplittableRandom(from);
+        tx.executeWithoutResult(status -> {
+            for (long i = from; i < to; i++) {
+                Member member = new Member("member" + i, (int) (i % 100));
+                // changeTeam()은 team.members 컬렉션을 초기화하므로 연관관계 주인 쪽만 프록시로 설정한다.
+                member.setTeam(em.getReference(Team.class, teamIds.get(teamIndex(i, random))));
+                em.persist(member);
+            }
+            em.flush();
+            em.clear();
+        });
+    }
+
+    private int teamIndex(long i, SplittableRandom random) {
+        return switch (distribution) {
+            case ROUND_ROBIN -> (int) (i % teams);
+            case UNIFORM -> random.nextInt(teams);
+            case SKEWED -> (int) (teams * Math.pow(random.nextDouble(), 3));
+        };
+    }
+
+    // teamA, teamB, ... teamZ, team26, team27 ...
+    private static String teamName(int i) {
+        return i < 26 ? "team" + (char) ('A' + i) : "team" + i;
+    }
+
+    private void logProgress(long inserted, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        log.info("seeding members: {}/{} ({} rows/s)", inserted, members, Math.round(inserted / seconds));
+    }
+}
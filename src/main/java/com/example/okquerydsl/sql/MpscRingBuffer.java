@@ -0,0 +1,69 @@
+package com.example.okquerydsl.sql;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// 여러 스레드가 넣고 한 스레드만 꺼내는 고정 크기 링 버퍼 (락 없음)
+//  - 넣는 쪽은 tail을 CAS로 한 칸 예약한 뒤 그 칸에 값을 쓴다. 가득 차 있으면 기다리지 않고 false를 반환한다.
+//  - 꺼내는 쪽은 head 칸이 채워졌는지 보고 비운 다음 head를 올린다.
+//    (칸을 예약만 하고 아직 쓰지 않은 생산자가 있으면 그 칸에서 멈추고 다음 drain에서 이어서 읽는다)
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    // capacity는 2의 거듭제곱으로 올림한다.
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public boolean offer(E element) {
+        while (true) {
+            long t = tail.get();
+            if (t - head.get() > mask) {
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.lazySet((int) t & mask, element);
+                return true;
+            }
+        }
+    }
+
+    // 꺼낼 수 있는 만큼(최대 limit개) 꺼내서 넘긴다. 꺼낸 개수를 반환한다. - 꺼내는 스레드 하나에서만 호출해야 한다.
+    public int drain(Consumer<? super E> consumer, int limit) {
+        long h = head.get();
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) h & mask;
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            head.set(++h);
+            drained++;
+            consumer.accept(element);
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.okquerydsl.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+// 스레드별로 열려 있는 SqlScope 스택을 관리하고 실행된 SQL을 모든 범위에 기록한다.
+// (HTTP 요청 안의 트랜잭션이면 요청과 트랜잭션 양쪽에 센다)
+//
+// 범위가 끝나면
+//  - sql.scope.statements, sql.scope.time  범위당 문장 수, JDBC 시간 (kind=http|transaction, name=URL 패턴|트랜잭션 이름)
+//  - sql.budget.violations                 문장 수 예산 초과
+//  - sql.n_plus_one                        같은 모양 반복
+// 요청 스레드에서 실행되는 SQL만 센다. (CompletableFuture, StreamingResponseBody 처럼 다른 스레드에서 실행되면 해당 트랜잭션 범위로만 잡힌다)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlBudget {
+
+    private static final ThreadLocal<Deque<SqlScope>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public boolean isEnabled() {
+        return properties.getMode() != SqlBudgetProperties.Mode.OFF;
+    }
+
+    // 테스트에서 try-with-resources로 문장 수를 확인할 때 쓴다.
+    public SqlScope open(String name, int budget) {
+        return open(SqlScope.Kind.MANUAL, name, budget, new Object());
+    }
+
+    SqlScope open(SqlScope.Kind kind, String name, Object owner) {
+        int budget = kind == SqlScope.Kind.HTTP
+                ? properties.getMaxStatementsPerRequest()
+                : properties.getMaxStatementsPerTransaction();
+        return open(kind, name, budget, owner);
+    }
+
+    private SqlScope open(SqlScope.Kind kind, String name, int budget, Object owner) {
+        SqlScope scope = new SqlScope(kind, name, budget, owner, this);
+        scopes.get().push(scope);
+        return scope;
+    }
+
+    // owner의 범위와 그 위에 닫히지 않고 남은 범위를 모두 닫는다.
+    void close(Object owner) {
+        Deque<SqlScope> stack = scopes.get();
+        if (stack.stream().noneMatch(scope -> scope.getOwner() == owner)) {
+            return;
+        }
+        SqlScope scope;
+        do {
+            scope = stack.pop();
+            report(scope);
+        } while (scope.getOwner() != owner);
+        if (stack.isEmpty()) {
+            scopes.remove();
+        }
+    }
+
+    void onStatement(String sql, long elapsedNanos) {
+        Deque<SqlScope> stack = scopes.get();
+        if (stack.isEmpty()) {
+            scopes.remove();
+            return;
+        }
+
+        String shape = SqlShapes.normalize(sql);
+        for (SqlScope scope : stack) {
+            if (scope.record(shape, elapsedNanos, properties.getRepeatedShapeThreshold())
+                    && properties.getMode() == SqlBudgetProperties.Mode.FAIL) {
+                throw new SqlBudgetExceededException(describe(scope));
+            }
+        }
+    }
+
+    private void report(SqlScope scope) {
+        String kind = scope.getKind().name().toLowerCase();
+        String name = scope.getName() == null ? "UNKNOWN" : scope.getName();
+
+        DistributionSummary.builder("sql.scope.statements")
+                .tags("kind", kind, "name", name)
+                .register(meterRegistry)
+                .record(scope.getStatements());
+        Timer.builder("sql.scope.time")
+                .tags("kind", kind, "name", name)
+                .register(meterRegistry)
+                .record(scope.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (scope.isOverBudget()) {
+            Counter.builder("sql.budget.violations").tags("kind", kind, "name", name).register(meterRegistry).increment();
+        }
+        if (!scope.getRepeatedShapes().isEmpty()) {
+            Counter.builder("sql.n_plus_one").tags("kind", kind, "name", name).register(meterRegistry)
+                    .increment(scope.getRepeatedShapes().size());
+        }
+        if (scope.isViolated() && properties.getMode() == SqlBudgetProperties.Mode.LOG) {
+            log.warn(describe(scope));
+        }
+    }
+
+    private static String describe(SqlScope scope) {
+        StringBuilder message = new StringBuilder()
+                .append("SQL budget exceeded in ").append(scope.getKind()).append(' ').append(scope.getName())
+                .append(": ").append(scope.getStatements()).append(" statements");
+        if (scope.getBudget() > 0) {
+            message.append(" (budget ").append(scope.getBudget()).append(')');
+        }
+        message.append(", ").append(TimeUnit.NANOSECONDS.toMillis(scope.getNanos())).append("ms");
+        for (String shape : scope.getRepeatedShapes()) {
+            message.append("\n  repeated ").append(scope.getShapes().get(shape)).append("x: ").append(shape);
+        }
+        return message.toString();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.okquerydsl.sql;
+
+// sql.budget.mode=FAIL 일 때 예산을 넘거나 N+1이 감지된 문장에서 던진다.
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
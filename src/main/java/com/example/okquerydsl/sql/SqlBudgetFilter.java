@@ -0,0 +1,36 @@
+package com.example.okquerydsl.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// HTTP 요청마다 SqlScope를 연다. 이름은 요청이 끝난 뒤 매핑된 URL 패턴(GET /v1/members)으로 정한다.
+@RequiredArgsConstructor
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final SqlBudget sqlBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!sqlBudget.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try (SqlScope scope = sqlBudget.open(SqlScope.Kind.HTTP, null, request)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                scope.rename(pattern == null ? null : request.getMethod() + " " + pattern);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.okquerydsl.sql;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+// p6spy-spring-boot-starter가 JdbcEventListener 빈을 p6spy에 등록한다.
+// executeQuery, executeUpdate, executeBatch 모두 onAfterAnyExecute로 들어온다. (배치는 한 문장으로 센다)
+@Component
+@RequiredArgsConstructor
+public class SqlBudgetListener extends JdbcEventListener {
+
+    private final SqlBudget sqlBudget;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (sqlBudget.isEnabled()) {
+            sqlBudget.onStatement(statementInformation.getSql(), timeElapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.okquerydsl.sql;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties("sql.budget")
+public class SqlBudgetProperties {
+
+    public enum Mode {
+        OFF,    // 세지 않는다.
+        LOG,    // 범위가 끝날 때 WARN 로그 + 메트릭
+        FAIL    // 위반한 문장에서 SqlBudgetExceededException (테스트용)
+    }
+
+    private Mode mode = Mode.LOG;
+    // 0 이하면 제한 없음
+    private int maxStatementsPerRequest = 50;
+    private int maxStatementsPerTransaction = 30;
+    // 한 범위 안에서 같은 모양의 SQL이 이만큼 반복되면 N+1로 본다.
+    private int repeatedShapeThreshold = 10;
+}
@@ -0,0 +1,32 @@
+package com.example.okquerydsl.sql;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+// 새로 시작된 트랜잭션마다 SqlScope를 연다. (참여한 트랜잭션은 바깥 트랜잭션에 포함된다)
+// 스프링 부트가 TransactionExecutionListener 빈을 트랜잭션 매니저에 등록한다.
+@Component
+@RequiredArgsConstructor
+public class SqlBudgetTransactionListener implements TransactionExecutionListener {
+
+    private final SqlBudget sqlBudget;
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null && transaction.isNewTransaction() && sqlBudget.isEnabled()) {
+            sqlBudget.open(SqlScope.Kind.TRANSACTION, transaction.getTransactionName(), transaction);
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        sqlBudget.close(transaction);
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        sqlBudget.close(transaction);
+    }
+}
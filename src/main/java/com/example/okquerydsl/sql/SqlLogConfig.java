@@ -0,0 +1,24 @@
+package com.example.okquerydsl.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// sql.log.enabled=true 일 때 비동기 샘플링 SQL 로그를 등록한다. (application-prod.yml)
+@Configuration
+@ConditionalOnProperty(prefix = "sql.log", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(SqlLogProperties.class)
+public class SqlLogConfig {
+
+    @Bean
+    SqlLogPipeline sqlLogPipeline(SqlLogProperties properties, MeterRegistry registry) {
+        return new SqlLogPipeline(properties, registry);
+    }
+
+    @Bean
+    SqlLogListener sqlLogListener(SqlLogPipeline sqlLogPipeline) {
+        return new SqlLogListener(sqlLogPipeline);
+    }
+}
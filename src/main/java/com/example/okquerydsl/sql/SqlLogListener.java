@@ -0,0 +1,19 @@
+package com.example.okquerydsl.sql;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.RequiredArgsConstructor;
+
+import java.sql.SQLException;
+
+// p6spy 실행 이벤트를 SqlLogPipeline으로 넘긴다. (sql.log.enabled=true 일 때만 등록된다)
+@RequiredArgsConstructor
+public class SqlLogListener extends JdbcEventListener {
+
+    private final SqlLogPipeline pipeline;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        pipeline.onStatement(statementInformation.getSql(), statementInformation::getSqlWithValues, timeElapsedNanos, e);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.okquerydsl.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// SQL 실행 이벤트를 요청 스레드에서 로그로 쓰지 않고 링 버퍼에 넣어둔 뒤 전용 스레드(sql-log-drainer)가 로그로 쓴다.
+// 요청 스레드에서 하는 일은 모양 정규화(캐시), 모양별 카운터 증가, 버퍼에 넣기뿐이다.
+//  - 샘플링: 모양별 첫 실행과 이후 sampleEvery 번마다 한 번
+//  - 느린 SQL(slowThreshold 이상)과 실패한 SQL은 항상 바인딩 값과 함께 남긴다.
+//  - 버퍼가 가득 차면 버리고 sql.log.events{result=dropped}를 올린다.
+// 로그는 "sql.log" 로거로 남긴다.
+@Slf4j
+public class SqlLogPipeline implements InitializingBean, DisposableBean {
+
+    private static final Logger sqlLog = LoggerFactory.getLogger("sql.log");
+    private static final int MAX_SHAPES = 10_000;
+    private static final int DRAIN_BATCH = 256;
+
+    private final SqlLogProperties properties;
+    private final MpscRingBuffer<SqlLogEvent> buffer;
+    private final Map<String, AtomicLong> shapeCounts = new ConcurrentHashMap<>();
+    private final long slowNanos;
+    private final int sampleEvery;
+
+    private final Counter logged;
+    private final Counter sampledOut;
+    private final Counter dropped;
+    private final Counter droppedSlow;
+
+    private volatile boolean running;
+    private Thread drainer;
+
+    public SqlLogPipeline(SqlLogProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.buffer = new MpscRingBuffer<>(properties.getBufferSize());
+        this.slowNanos = properties.getSlowThreshold().toNanos();
+        this.sampleEvery = Math.max(1, properties.getSampleEvery());
+
+        this.logged = Counter.builder("sql.log.events").tag("result", "logged").register(registry);
+        this.sampledOut = Counter.builder("sql.log.events").tag("result", "sampled_out").register(registry);
+        this.dropped = Counter.builder("sql.log.events").tag("result", "dropped").register(registry);
+        this.droppedSlow = Counter.builder("sql.log.events").tag("result", "dropped_slow").register(registry);
+        Gauge.builder("sql.log.buffer.size", buffer, MpscRingBuffer::size).register(registry);
+    }
+
+    // sqlWithValues는 느린 SQL이나 실패한 SQL일 때만 호출된다. (바인딩 값으로 문자열을 만드는 비용)
+    public void onStatement(String sql, Supplier<String> sqlWithValues, long elapsedNanos, Throwable error) {
+        if (sql == null || sql.isBlank()) {
+            return;
+        }
+        boolean slow = elapsedNanos >= slowNanos || error != null;
+        String shape = SqlShapes.normalize(sql);
+        long count = shapeCount(shape).incrementAndGet();
+
+        SqlLogEvent event;
+        if (slow) {
+            event = new SqlLogEvent(shape, sqlWithValues.get(), elapsedNanos, count, true,
+                    error == null ? null : error.toString(), Thread.currentThread().getName());
+        } else if (count == 1 || count % sampleEvery == 0) {
+            event = new SqlLogEvent(shape, null, elapsedNanos, count, false, null, Thread.currentThread().getName());
+        } else {
+            sampledOut.increment();
+            return;
+        }
+
+        if (!buffer.offer(event)) {
+            (slow ? droppedSlow : dropped).increment();
+        }
+    }
+
+    private AtomicLong shapeCount(String shape) {
+        AtomicLong count = shapeCounts.get(shape);
+        if (count != null) {
+            return count;
+        }
+        if (shapeCounts.size() >= MAX_SHAPES) {
+            shapeCounts.clear();
+        }
+        return shapeCounts.computeIfAbsent(shape, s -> new AtomicLong());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        drainer = new Thread(this::drainLoop, "sql-log-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void drainLoop() {
+        long idleNanos = properties.getIdleWait().toNanos();
+        while (running) {
+            try {
+                if (buffer.drain(this::write, DRAIN_BATCH) == 0) {
+                    LockSupport.parkNanos(idleNanos);
+                }
+            } catch (RuntimeException e) {
+                log.warn("sql log drain failed", e);
+            }
+        }
+        // 종료 전에 남은 이벤트를 쓴다.
+        int drained;
+        do {
+            drained = buffer.drain(this::write, DRAIN_BATCH);
+        } while (drained > 0);
+    }
+
+    private void write(SqlLogEvent event) {
+        logged.increment();
+        double millis = (double) event.elapsedNanos() / TimeUnit.MILLISECONDS.toNanos(1);
+        if (event.error() != null) {
+            sqlLog.warn("[{}] failed {}ms | {} | {}", event.thread(), String.format("%.2f", millis), event.sqlWithValues(), event.error());
+        } else if (event.slow()) {
+            sqlLog.warn("[{}] slow {}ms | {}", event.thread(), String.format("%.2f", millis), event.sqlWithValues());
+        } else {
+            sqlLog.info("[{}] {}ms (#{}) | {}", event.thread(), String.format("%.2f", millis), event.count(), event.shape());
+        }
+    }
+
+    // count: 이 모양이 지금까지 실행된 횟수
+    record SqlLogEvent(String shape, String sqlWithValues, long elapsedNanos, long count, boolean slow,
+                       String error, String thread) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.okquerydsl.sql;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties("sql.log")
+public class SqlLogProperties {
+    private boolean enabled;
+    // 링 버퍼 크기 (2의 거듭제곱으로 올림)
+    private int bufferSize = 8192;
+    // 같은 모양의 SQL은 처음 한 번과 이후 sample-every 번에 한 번만 남긴다. (1이면 모두)
+    private int sampleEvery = 100;
+    // 이보다 오래 걸린 SQL은 샘플링과 상관없이 바인딩 값까지 남긴다.
+    private Duration slowThreshold = Duration.ofMillis(200);
+    // 버퍼가 비어 있을 때 drain 스레드가 쉬는 시간
+    private Duration idleWait = Duration.ofMillis(10);
+}
@@ -0,0 +1,71 @@
+package com.example.okquerydsl.sql;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// 한 HTTP 요청 또는 한 트랜잭션 동안 실행된 SQL 통계
+// 스레드 하나에서만 사용된다. (SqlBudget의 ThreadLocal 스택)
+@Getter
+public class SqlScope implements AutoCloseable {
+
+    public enum Kind {
+        HTTP, TRANSACTION, MANUAL
+    }
+
+    private final Kind kind;
+    private String name;
+    private final int budget;
+    private final Object owner;
+    private final SqlBudget sqlBudget;
+
+    private int statements;
+    private long nanos;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    // repeated-shape-threshold 번 이상 반복된 모양
+    private final Set<String> repeatedShapes = new LinkedHashSet<>();
+    private boolean overBudget;
+
+    SqlScope(Kind kind, String name, int budget, Object owner, SqlBudget sqlBudget) {
+        this.kind = kind;
+        this.name = name;
+        this.budget = budget;
+        this.owner = owner;
+        this.sqlBudget = sqlBudget;
+    }
+
+    // 요청 처리 후에야 알 수 있는 이름(매핑된 URL 패턴 등)으로 바꾼다.
+    public void rename(String name) {
+        this.name = name;
+    }
+
+    // 이번 문장으로 처음 예산을 넘었거나 처음 반복 임계치에 닿았으면 true
+    boolean record(String shape, long elapsedNanos, int repeatThreshold) {
+        statements++;
+        nanos += elapsedNanos;
+        int count = shapes.merge(shape, 1, Integer::sum);
+
+        boolean violation = false;
+        if (budget > 0 && statements > budget && !overBudget) {
+            overBudget = true;
+            violation = true;
+        }
+        if (repeatThreshold > 0 && count == repeatThreshold) {
+            repeatedShapes.add(shape);
+            violation = true;
+        }
+        return violation;
+    }
+
+    public boolean isViolated() {
+        return overBudget || !repeatedShapes.isEmpty();
+    }
+
+    @Override
+    public void close() {
+        sqlBudget.close(owner);
+    }
+}
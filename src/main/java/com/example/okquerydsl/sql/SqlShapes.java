@@ -0,0 +1,48 @@
+package com.example.okquerydsl.sql;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// SQL 문자열을 "모양"으로 정규화한다. -> 값만 다른 같은 쿼리를 하나로 묶어서 셀 수 있다.
+//  - 주석(use_sql_comments), 문자열/숫자 리터럴 제거
+//  - in (?, ?, ?) 처럼 개수만 다른 목록은 in (?) 로
+//  - 공백 정리, 소문자
+// 같은 PreparedStatement SQL이 계속 들어오므로 결과를 캐시한다.
+public abstract class SqlShapes {
+
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/|--[^\\n]*", Pattern.DOTALL);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final int MAX_CACHED = 10_000;
+    private static final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    private SqlShapes() {
+    }
+
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String shape = cache.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+
+        shape = COMMENT.matcher(sql).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        cache.put(sql, shape);
+        return shape;
+    }
+}
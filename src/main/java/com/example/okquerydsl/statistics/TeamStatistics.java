@@ -0,0 +1,302 @@
+package com.example.okquerydsl.statistics;
+
+import com.example.okquerydsl.datasource.WorkloadContext;
+import com.example.okquerydsl.datasource.WorkloadType;
+import com.example.okquerydsl.dto.TeamStatisticsDto;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static com.example.okquerydsl.entity.QMember.member;
+import static com.example.okquerydsl.entity.QTeam.team;
+
+// 팀별 회원 나이 통계 (QuerydslBasicTest.group 과 같은 team.name 기준 count, sum, avg, max, min)
+// 조회할 때마다 member 테이블을 group by 하는 대신, 커밋된 회원 변경(EntityChangeEvent)마다 해당 팀의 집계만 고친다.
+// -> 조회 비용은 회원 수가 아니라 팀 수에 비례한다.
+// max, min은 회원이 빠질 때도 구할 수 있도록 팀마다 나이별 인원수(TreeMap)를 둔다.
+//
+// 이벤트만으로 맞출 수 없는 경우(벌크 연산, 변경 전 상태가 없는 UPDATE)와 혹시 모를 어긋남은
+// 주기적인 전체 재계산(reconcile)으로 바로잡는다. 어긋난 팀 수는 team.statistics.drift 로 남긴다.
+// 재계산 쿼리를 시작한 뒤에 온 회원, 팀 이벤트는 모아두었다가 재계산 결과로 교체한 직후 다시 적용한다.
+// (쿼리 시작 직전에 커밋되고 이벤트는 시작 뒤에 온 변경은 두 번 반영될 수 있다. 드문 경우이고 다음 재계산에서 맞춰진다)
+// 재계산은 한 번에 하나만 실행한다. 처음 조회할 때도 재계산 하나만 실행하고 나머지 조회는 그 결과를 기다린다.
+// 이벤트로 요청된 재계산은 하나로 합친다. -> 청크 단위 벌크 연산이 벌크 이벤트를 수천 번 보내도 재계산은 실행 중 하나 + 대기 하나뿐이다.
+// DB 조회는 모니터 밖에서 하고 교체할 때만 잠근다. (커밋 이후 회원 이벤트 처리를 막지 않도록)
+@Slf4j
+@Component
+public class TeamStatistics {
+
+    private final JPAQueryFactory queryFactory;
+    private final Executor executor;
+    private final Counter drift;
+    private final Counter reconciles;
+    private final AtomicBoolean reconcilePending = new AtomicBoolean();
+    private final Object reloadLock = new Object();
+
+    // 아래 필드는 this로 동기화한다. (loaded는 모니터 밖에서도 읽는다)
+    private Map<Long, Aggregate> byTeam = new HashMap<>();
+    private Map<Long, String> teamNames = new HashMap<>();
+    private volatile boolean loaded;
+    // 재계산 중에 온 회원, 팀 이벤트 (재계산 중이 아니면 null)
+    private List<EntityChangeEvent> eventsDuringReload;
+
+    public TeamStatistics(JPAQueryFactory queryFactory,
+                          @Qualifier("applicationTaskExecutor") Executor executor,
+                          MeterRegistry meterRegistry) {
+        this.queryFactory = queryFactory;
+        this.executor = executor;
+        this.drift = meterRegistry.counter("team.statistics.drift");
+        this.reconciles = meterRegistry.counter("team.statistics.reconciles");
+    }
+
+    // 팀 이름은 unique가 아니므로 같은 이름의 팀은 합쳐서 보여준다. (group by team.name)
+    public List<TeamStatisticsDto> statistics() {
+        if (!loaded) {
+            synchronized (reloadLock) {
+                if (!loaded) {
+                    reconcile();
+                }
+            }
+        }
+
+        Map<String, Aggregate> byName = new TreeMap<>();
+        synchronized (this) {
+            byTeam.forEach((teamId, aggregate) -> {
+                String name = teamNames.get(teamId);
+                if (name != null && aggregate.count > 0) {
+                    byName.computeIfAbsent(name, n -> new Aggregate()).merge(aggregate);
+                }
+            });
+        }
+
+        List<TeamStatisticsDto> result = new ArrayList<>(byName.size());
+        byName.forEach((name, aggregate) -> result.add(aggregate.toDto(name)));
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        requestReconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${team.statistics.reconcile-interval:PT5M}",
+            initialDelayString = "${team.statistics.reconcile-interval:PT5M}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    // 이미 대기 중인 재계산이 있으면 그것으로 충분하다.
+    // 실행을 시작할 때 대기 표시를 지우므로, 실행 중에 온 요청은 다음 재계산 하나로 모인다.
+    private void requestReconcile() {
+        if (reconcilePending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                reconcilePending.set(false);
+                reconcile();
+            });
+        }
+    }
+
+    // DB에서 팀별, 나이별 인원수를 다시 읽어서 교체한다.
+    // 회원 전체를 group by 하므로 어디서 부르든 REPORTING 풀을 쓴다. (스케줄러, 재계산 executor, 첫 조회)
+    public void reconcile() {
+        WorkloadContext.run(WorkloadType.REPORTING, this::reload);
+    }
+
+    private void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                eventsDuringReload = new ArrayList<>();
+            }
+            try {
+                Map<Long, String> names = new HashMap<>();
+                for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+                    names.put(row.get(team.id), row.get(team.name));
+                }
+
+                Map<Long, Aggregate> aggregates = new HashMap<>();
+                List<Tuple> rows = queryFactory
+                        .select(member.team.id, member.age, member.count())
+                        .from(member)
+                        .where(member.team.isNotNull())
+                        .groupBy(member.team.id, member.age)
+                        .fetch();
+                for (Tuple row : rows) {
+                    aggregates.computeIfAbsent(row.get(member.team.id), id -> new Aggregate())
+                            .add(row.get(member.age), row.get(member.count()));
+                }
+
+                swap(aggregates, names);
+            } finally {
+                synchronized (this) {
+                    eventsDuringReload = null;
+                }
+            }
+            reconciles.increment();
+        }
+    }
+
+    // 교체한 뒤 재계산 중에 온 이벤트를 다시 적용하고, 그 결과를 이벤트로 고쳐온 집계와 비교한다.
+    private synchronized void swap(Map<Long, Aggregate> aggregates, Map<Long, String> names) {
+        Map<Long, Aggregate> previous = byTeam;
+        byTeam = aggregates;
+        teamNames = names;
+        eventsDuringReload.forEach(this::apply);
+
+        if (loaded) {
+            long drifted = countDrift(previous, byTeam);
+            if (drifted > 0) {
+                log.info("team statistics drift corrected: {} teams", drifted);
+                drift.increment(drifted);
+            }
+        }
+        loaded = true;
+    }
+
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.isBulk() && (event.isAbout(Member.class) || event.isAbout(Team.class))) {
+            requestReconcile();
+        } else if (event.isAbout(Member.class) || event.isAbout(Team.class)) {
+            record(event);
+        }
+    }
+
+    private synchronized void record(EntityChangeEvent event) {
+        if (eventsDuringReload != null) {
+            eventsDuringReload.add(event);
+        }
+        if (loaded) {
+            apply(event);
+        }
+    }
+
+    private void apply(EntityChangeEvent event) {
+        if (event.isAbout(Member.class)) {
+            onMemberChange(event);
+        } else {
+            onTeamChange(event);
+        }
+    }
+
+    private void onMemberChange(EntityChangeEvent event) {
+        switch (event.getType()) {
+            case INSERT -> add(teamIdOf(event.getValue("team")), (Integer) event.getValue("age"));
+            case UPDATE -> {
+                if (event.getOldState() == null) {
+                    // 이전 팀, 나이를 모르면 어느 집계에서 빼야 할지 알 수 없다.
+                    requestReconcile();
+                    return;
+                }
+                remove(teamIdOf(event.getOldValue("team")), (Integer) event.getOldValue("age"));
+                add(teamIdOf(event.getValue("team")), (Integer) event.getValue("age"));
+            }
+            case DELETE -> remove(teamIdOf(event.getOldValue("team")), (Integer) event.getOldValue("age"));
+            default -> {
+            }
+        }
+    }
+
+    private void onTeamChange(EntityChangeEvent event) {
+        Long teamId = (Long) event.getId();
+        if (event.getType() == EntityChangeEvent.Type.DELETE) {
+            teamNames.remove(teamId);
+            byTeam.remove(teamId);
+        } else {
+            teamNames.put(teamId, (String) event.getValue("name"));
+        }
+    }
+
+    private void add(Long teamId, Integer age) {
+        if (teamId != null && age != null) {
+            byTeam.computeIfAbsent(teamId, id -> new Aggregate()).add(age, 1);
+        }
+    }
+
+    private void remove(Long teamId, Integer age) {
+        Aggregate aggregate = teamId == null ? null : byTeam.get(teamId);
+        if (aggregate != null && age != null) {
+            aggregate.remove(age);
+        }
+    }
+
+    private static long countDrift(Map<Long, Aggregate> previous, Map<Long, Aggregate> reconciled) {
+        return Stream.concat(previous.keySet().stream(), reconciled.keySet().stream())
+                .distinct()
+                .filter(teamId -> !Aggregate.same(previous.get(teamId), reconciled.get(teamId)))
+                .count();
+    }
+
+    private static Long teamIdOf(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getInternalIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+
+    private static class Aggregate {
+        private long count;
+        private long sum;
+        private final TreeMap<Integer, Long> ages = new TreeMap<>();
+
+        void add(int age, long members) {
+            count += members;
+            sum += (long) age * members;
+            ages.merge(age, members, Long::sum);
+        }
+
+        void remove(int age) {
+            Long members = ages.get(age);
+            if (members == null) {
+                return;
+            }
+            count--;
+            sum -= age;
+            if (members == 1) {
+                ages.remove(age);
+            } else {
+                ages.put(age, members - 1);
+            }
+        }
+
+        void merge(Aggregate other) {
+            other.ages.forEach(this::add);
+        }
+
+        TeamStatisticsDto toDto(String teamName) {
+            return new TeamStatisticsDto(teamName, count, sum, ages.lastKey(), ages.firstKey());
+        }
+
+        static boolean same(Aggregate a, Aggregate b) {
+            long countA = a == null ? 0 : a.count;
+            long countB = b == null ? 0 : b.count;
+            if (countA == 0 || countB == 0) {
+                return countA == countB;
+            }
+            return a.sum == b.sum && a.ages.equals(b.ages);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.okquerydsl.advisor;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import com.example.okquerydsl.repository.MemberRepository;
+import com.example.okquerydsl.repository.MemberSearchTemplates;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static com.example.okquerydsl.repository.cache.MemberSearchKey.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class IndexAdvisorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSearchTemplates searchTemplates;
+
+    @Autowired
+    SearchShapeRecorder recorder;
+
+    @Autowired
+    IndexAdvisor indexAdvisor;
+
+    @Test
+    void adviseObservedShapes() {
+        recorder.clear();
+
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        condition.setAgeGoe(5);
+        memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+        searchTemplates.count(condition);
+
+        // content, count 쿼리는 따로 기록된다.
+        assertThat(recorder.snapshot())
+                .filteredOn(observed -> observed.getShape() == (USERNAME | AGE_GOE))
+                .extracting(SearchShapeRecorder.ObservedShape::getQuery)
+                .containsExactlyInAnyOrder(SearchShapeRecorder.Query.CONTENT, SearchShapeRecorder.Query.COUNT);
+
+        List<IndexAdvisor.Advice> advices = indexAdvisor.advise();
+        assertThat(advices).extracting("shapeDescription").contains("username, ageGoe");
+        // 전체 스캔이라면 (username, age) 인덱스를 추천한다.
+        assertThat(advices).filteredOn("shapeDescription", "username, ageGoe")
+                .allMatch(advice -> !advice.isFullScan()
+                        || advice.getRecommendation().getName().equals("idx_member_username_age"));
+    }
+
+    // 기준을 남긴 뒤의 기록은 기준과 따로 집계되고, 모양별로 기준과 비교된다.
+    @Test
+    void compareWithBaseline() {
+        recorder.clear();
+        recorder.record(USERNAME, SearchShapeRecorder.Sort.NONE, () -> null);
+        recorder.record(USERNAME, SearchShapeRecorder.Sort.NONE, () -> null);
+        recorder.markBaseline();
+        recorder.record(USERNAME, SearchShapeRecorder.Sort.NONE, () -> null);
+
+        IndexAdvisor.Advice advice = indexAdvisor.advise().get(0);
+        assertThat(advice.getExecutions()).isEqualTo(1);
+        assertThat(advice.getBaselineExecutions()).isEqualTo(2);
+        assertThat(advice.getBaselineMeanMillis()).isNotNull();
+
+        recorder.clear();
+        assertThat(recorder.snapshot()).isEmpty();
+    }
+
+    @Test
+    void indexColumns() {
+        assertThat(IndexAdvisor.indexColumns(USERNAME | AGE_GOE, SearchShapeRecorder.Sort.NONE)).containsExactly("username", "age");
+        assertThat(IndexAdvisor.indexColumns(TEAM_NAME, SearchShapeRecorder.Sort.AGE)).containsExactly("team_id", "age");
+        assertThat(IndexAdvisor.indexColumns(0, SearchShapeRecorder.Sort.ID)).isEmpty();
+    }
+
+    @Test
+    void countSqlHasNoJoinOrLimit() {
+        IndexAdvisor.Sample sample = new IndexAdvisor.Sample("member1", 1L, 10);
+
+        assertThat(IndexAdvisor.sql(USERNAME | AGE_GOE, SearchShapeRecorder.Sort.NONE, SearchShapeRecorder.Query.COUNT, sample))
+                .isEqualTo("select count(*) from member m where m.username = 'member1' and m.age >= 10");
+        assertThat(IndexAdvisor.sql(USERNAME, SearchShapeRecorder.Sort.NONE, SearchShapeRecorder.Query.CONTENT, sample))
+                .contains("left join team").endsWith(" limit 20");
+    }
+}
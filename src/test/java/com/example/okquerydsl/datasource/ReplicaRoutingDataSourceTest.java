@@ -0,0 +1,137 @@
+package com.example.okquerydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    ReplicaRoutingDataSource router;
+
+    @AfterEach
+    void close() throws Exception {
+        router.close();
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        JdbcTemplate jdbc = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ZERO, "replica1");
+        TransactionTemplate write = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        TransactionTemplate read = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        read.setReadOnly(true);
+
+        assertThat(write.execute(status -> whereAmI(jdbc))).isEqualTo("primary");
+        assertThat(read.execute(status -> whereAmI(jdbc))).isEqualTo("replica1");
+        // 트랜잭션이 없으면 primary
+        assertThat(whereAmI(jdbc)).isEqualTo("primary");
+    }
+
+    @Test
+    void roundRobin() {
+        JdbcTemplate jdbc = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ZERO, "replica1", "replica2");
+        TransactionTemplate read = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        read.setReadOnly(true);
+
+        assertThat(List.of(read.execute(status -> whereAmI(jdbc)), read.execute(status -> whereAmI(jdbc)), read.execute(status -> whereAmI(jdbc))))
+                .containsExactly("replica1", "replica2", "replica1");
+    }
+
+    @Test
+    void readAfterWriteGoesToPrimaryWithinLagWindow() {
+        JdbcTemplate jdbc = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofMinutes(1), "replica1");
+        TransactionTemplate write = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        TransactionTemplate read = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        read.setReadOnly(true);
+
+        // 아직 쓰기가 없으면 레플리카
+        assertThat(read.execute(status -> whereAmI(jdbc))).isEqualTo("replica1");
+
+        write.executeWithoutResult(status -> jdbc.update("update location set name = name"));
+
+        assertThat(read.execute(status -> whereAmI(jdbc))).isEqualTo("primary");
+    }
+
+    // 다른 스레드(다른 요청)의 읽기는 쓰기와 상관없이 레플리카로 간다.
+    @Test
+    void writeDoesNotAffectUnrelatedReaders() throws Exception {
+        JdbcTemplate jdbc = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofMinutes(1), "replica1");
+        TransactionTemplate write = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        TransactionTemplate read = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        read.setReadOnly(true);
+
+        write.executeWithoutResult(status -> jdbc.update("update location set name = name"));
+
+        assertThat(read.execute(status -> whereAmI(jdbc))).isEqualTo("primary");
+        assertThat(CompletableFuture.supplyAsync(() -> read.execute(status -> whereAmI(jdbc))).get()).isEqualTo("replica1");
+    }
+
+    // 같은 키(사용자, 세션)라면 다른 스레드에서도 자기 쓰기를 primary에서 읽는다.
+    @Test
+    void sameWriterKeyAcrossThreads() throws Exception {
+        JdbcTemplate jdbc = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofMinutes(1), "replica1");
+        TransactionTemplate write = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        TransactionTemplate read = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        read.setReadOnly(true);
+
+        ReadYourWrites.call("user:1", () -> write.execute(status -> jdbc.update("update location set name = name")));
+
+        assertThat(CompletableFuture.supplyAsync(() -> ReadYourWrites.call("user:1", () -> read.execute(status -> whereAmI(jdbc)))).get())
+                .isEqualTo("primary");
+        assertThat(CompletableFuture.supplyAsync(() -> ReadYourWrites.call("user:2", () -> read.execute(status -> whereAmI(jdbc)))).get())
+                .isEqualTo("replica1");
+    }
+
+    // 공유 캐시를 채우는 조회는 readOnly 트랜잭션이어도 primary에서 읽는다.
+    @Test
+    void primaryReadsInReadOnlyTransaction() {
+        JdbcTemplate jdbc = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ZERO, "replica1");
+        TransactionTemplate read = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        read.setReadOnly(true);
+
+        assertThat(read.execute(status -> PrimaryReads.call(() -> whereAmI(jdbc)))).isEqualTo("primary");
+        assertThat(read.execute(status -> whereAmI(jdbc))).isEqualTo("replica1");
+
+        // 이미 레플리카 커넥션을 쓰는 트랜잭션은 primary로 바꿀 수 없다.
+        read.executeWithoutResult(status -> {
+            assertThat(PrimaryReads.isAvailable()).isTrue();
+            assertThat(whereAmI(jdbc)).isEqualTo("replica1");
+            assertThat(PrimaryReads.isAvailable()).isFalse();
+            assertThat(PrimaryReads.call(() -> whereAmI(jdbc))).isEqualTo("replica1");
+        });
+        assertThat(PrimaryReads.isAvailable()).isTrue();
+    }
+
+    private JdbcTemplate routing(ReplicaRoutingDataSource.Selection selection, Duration maxLag, String... replicaNames) {
+        List<DataSource> replicas = Arrays.stream(replicaNames).map(ReplicaRoutingDataSourceTest::database).toList();
+        router = new ReplicaRoutingDataSource(database("primary"), replicas, selection, new ReplicaLagPolicy(maxLag));
+        return new JdbcTemplate(new LazyConnectionDataSourceProxy(router));
+    }
+
+    // 어느 DB로 갔는지 알 수 있도록 DB마다 자기 이름을 저장해둔다.
+    private static DataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(name);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists location (name varchar(20))");
+        jdbc.update("delete from location");
+        jdbc.update("insert into location values (?)", name);
+        return dataSource;
+    }
+
+    private static String whereAmI(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("select name from location", String.class);
+    }
+}
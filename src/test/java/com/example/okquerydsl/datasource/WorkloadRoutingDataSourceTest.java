@@ -0,0 +1,88 @@
+package com.example.okquerydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkloadRoutingDataSourceTest {
+
+    WorkloadRoutingDataSource router;
+    JdbcTemplate jdbc;
+
+    @BeforeEach
+    void before() {
+        Map<WorkloadType, DataSource> pools = new EnumMap<>(WorkloadType.class);
+        for (WorkloadType type : WorkloadType.values()) {
+            pools.put(type, pool(type));
+        }
+        router = new WorkloadRoutingDataSource(pools);
+        jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(router));
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        router.close();
+    }
+
+    @Test
+    void routesByWorkload() {
+        // 지정하지 않으면 INTERACTIVE
+        assertThat(poolName()).isEqualTo("workload-interactive");
+        assertThat(WorkloadContext.call(WorkloadType.REPORTING, this::poolName)).isEqualTo("workload-reporting");
+        assertThat(WorkloadContext.call(WorkloadType.BULK, this::poolName)).isEqualTo("workload-bulk");
+        assertThat(poolName()).isEqualTo("workload-interactive");
+    }
+
+    // 바깥에서 정한 작업 종류를 안쪽 호출이 바꾸지 않는다.
+    @Test
+    void outerWorkloadWins() {
+        String inner = WorkloadContext.call(WorkloadType.BULK,
+                () -> WorkloadContext.call(WorkloadType.INTERACTIVE, this::poolName));
+
+        assertThat(inner).isEqualTo("workload-bulk");
+    }
+
+    // 스레드 풀로 넘긴 작업도 호출한 스레드의 작업 종류를 쓰고, 작업이 끝나면 그 스레드에 남지 않는다.
+    @Test
+    void propagatesToOtherThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Supplier<String> task = WorkloadContext.call(WorkloadType.REPORTING, () -> WorkloadContext.propagate(this::poolName));
+            assertThat(executor.submit(task::get).get()).isEqualTo("workload-reporting");
+
+            Supplier<String> unset = WorkloadContext.propagate(this::poolName);
+            assertThat(executor.submit(unset::get).get()).isEqualTo("workload-interactive");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private String poolName() {
+        return jdbc.queryForObject("select name from pool", String.class);
+    }
+
+    // 어느 풀로 갔는지 알 수 있도록 풀마다 다른 DB에 풀 이름을 저장해둔다.
+    private static DataSource pool(WorkloadType type) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + type.poolName() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(type.poolName());
+        dataSource.setMaximumPoolSize(1);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists pool (name varchar(30))");
+        jdbc.update("delete from pool");
+        jdbc.update("insert into pool values (?)", type.poolName());
+        return dataSource;
+    }
+}
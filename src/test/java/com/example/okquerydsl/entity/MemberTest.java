@@ -1,5 +1,6 @@
 package com.example.okquerydsl.entity;
 
+import io.micrometer.core.instrument.Metrics;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +9,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 @Transactional
 class MemberTest {
@@ -44,4 +47,21 @@ class MemberTest {
         }
     }
 
+    // member_seq는 allocationSize(1000)만큼 한 번에 가져오므로 10건 insert에 시퀀스 호출은 많아야 한 번이다.
+    @Test
+    void pooledLoSequence() {
+        double calls = sequenceCounter("hibernate.id.sequence.calls");
+        double generated = sequenceCounter("hibernate.id.generated");
+
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("sequenceMember" + i, i));
+        }
+
+        assertThat(sequenceCounter("hibernate.id.generated") - generated).isEqualTo(10);
+        assertThat(sequenceCounter("hibernate.id.sequence.calls") - calls).isLessThanOrEqualTo(1);
+    }
+
+    private static double sequenceCounter(String name) {
+        return Metrics.globalRegistry.counter(name, "sequence", "member_seq").count();
+    }
 }
@@ -0,0 +1,61 @@
+package com.example.okquerydsl.entity;
+
+import com.example.okquerydsl.support.CommittedTransactionTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// team.members 컬렉션 캐시는 커밋된 트랜잭션 사이에서만 확인할 수 있다.
+// 테스트 application.yml에는 2차 캐시 설정이 없으므로 여기서 켠다.
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.cache.missing_cache_strategy=create-warn",
+        "spring.jpa.properties.hibernate.cache.auto_evict_collection_cache=true",
+        "spring.jpa.properties.hibernate.javax.cache.provider=org.ehcache.jsr107.EhcacheCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.uri=classpath:ehcache.xml"
+})
+class TeamTest extends CommittedTransactionTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Override
+    protected List<String> cleanUpQueries() {
+        return List.of(
+                "delete from Member m where m.team in (select t from Team t where t.name = 'cachedTeam')",
+                "delete from Team t where t.name = 'cachedTeam'"
+        );
+    }
+
+    // 연관관계 주인 쪽(member.team)만 설정해서 추가한 회원도 다음 트랜잭션의 team.getMembers()에 보인다.
+    @Test
+    void membersCollectionCacheIsEvictedByOwningSide() {
+        Long teamId = tx.execute(status -> {
+            Team team = new Team("cachedTeam");
+            em.persist(team);
+            em.persist(new Member("cachedMember1", 10, team));
+            return team.getId();
+        });
+
+        // 컬렉션 캐시를 채운다.
+        assertThat(tx.execute(status -> em.find(Team.class, teamId).getMembers().size())).isEqualTo(1);
+        assertThat(emf.unwrap(SessionFactory.class).getCache().containsCollection(Team.class.getName() + ".members", teamId)).isTrue();
+
+        tx.executeWithoutResult(status -> {
+            Member member = new Member("cachedMember2", 20);
+            member.setTeam(em.getReference(Team.class, teamId));
+            em.persist(member);
+        });
+
+        assertThat(tx.execute(status -> em.find(Team.class, teamId).getMembers()))
+                .extracting(Member::getUsername)
+                .containsExactlyInAnyOrder("cachedMember1", "cachedMember2");
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.okquerydsl.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// test 프로필은 generate_statistics, 통계 초기화를 켜지 않는다.
+@SpringBootTest
+class HibernateStatisticsEndpointTest {
+
+    @Autowired
+    HibernateStatisticsEndpoint endpoint;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void disabledByDefault() {
+        assertThat(endpoint.statistics())
+                .containsEntry("enabled", false)
+                .doesNotContainKeys("queries", "secondLevelCache");
+        assertThat(meterRegistry.get("hibernate.statistics.enabled").gauge().value()).isZero();
+        assertThat(meterRegistry.find("hibernate.cache.second_level").meters()).isEmpty();
+    }
+
+    @Test
+    void clearForbiddenByDefault() {
+        assertThat(endpoint.clear().getStatus()).isEqualTo(HttpStatus.FORBIDDEN.value());
+    }
+}
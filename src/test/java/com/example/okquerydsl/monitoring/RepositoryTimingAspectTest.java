@@ -0,0 +1,64 @@
+package com.example.okquerydsl.monitoring;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.repository.MemberJpaRepository;
+import com.example.okquerydsl.repository.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "repository.timing.enabled=true")
+@Transactional
+class RepositoryTimingAspectTest {
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    RepositoryLatencyRecorder recorder;
+
+    @BeforeEach
+    void before() {
+        recorder.reset();
+    }
+
+    @Test
+    void recordsPerMethodAndShape() {
+        MemberSearchCondition byUsername = new MemberSearchCondition();
+        byUsername.setUsername("member1");
+        MemberSearchCondition byAge = new MemberSearchCondition();
+        byAge.setAgeGoe(10);
+
+        memberJpaRepository.search(byUsername);
+        memberJpaRepository.search(byUsername);
+        memberJpaRepository.search(byAge);
+        memberJpaRepository.findAll_querydsl();
+        // Spring Data 리포지토리는 MemberRepositoryImpl, SimpleJpaRepository가 아니라 MemberRepository 이름으로 기록된다.
+        memberRepository.searchPageComplex(byUsername, PageRequest.of(0, 10));
+        memberRepository.findByUsername("member1");
+
+        assertThat(recorder.snapshot())
+                .extracting(RepositoryLatencyRecorder.Latency::getMethod,
+                        RepositoryLatencyRecorder.Latency::getShape,
+                        RepositoryLatencyRecorder.Latency::getCount)
+                .containsExactlyInAnyOrder(
+                        tuple("MemberJpaRepository.search", "username", 2L),
+                        tuple("MemberJpaRepository.search", "ageGoe", 1L),
+                        tuple("MemberJpaRepository.findAll_querydsl", null, 1L),
+                        tuple("MemberRepository.searchPageComplex", "username", 1L),
+                        tuple("MemberRepository.findByUsername", null, 1L));
+        assertThat(recorder.snapshot()).allSatisfy(latency -> {
+            assertThat(latency.getP50Millis()).isLessThanOrEqualTo(latency.getP99Millis());
+            assertThat(latency.getP99Millis()).isLessThanOrEqualTo(latency.getMaxMillis());
+        });
+    }
+}
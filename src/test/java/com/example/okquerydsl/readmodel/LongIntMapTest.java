@@ -0,0 +1,53 @@
+package com.example.okquerydsl.readmodel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntMapTest {
+
+    @Test
+    void putGetRemove() {
+        LongIntMap map = new LongIntMap(4);
+        map.put(1L, 10);
+        map.put(2L, 20);
+        map.put(1L, 11);
+
+        assertThat(map.get(1L)).isEqualTo(11);
+        assertThat(map.get(2L)).isEqualTo(20);
+        assertThat(map.get(3L)).isEqualTo(-1);
+
+        map.remove(1L);
+        assertThat(map.get(1L)).isEqualTo(-1);
+        assertThat(map.get(2L)).isEqualTo(20);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    // 삭제 후 같은 클러스터의 다른 키를 계속 찾을 수 있는지 HashMap과 비교
+    @Test
+    void sameAsHashMap() {
+        LongIntMap map = new LongIntMap(16);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 5_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, -1));
+        }
+    }
+}
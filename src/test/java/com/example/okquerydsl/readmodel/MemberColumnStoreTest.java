@@ -0,0 +1,182 @@
+package com.example.okquerydsl.readmodel;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.dto.UsernameMatch;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.example.okquerydsl.repository.MemberSearchTemplates;
+import com.example.okquerydsl.support.CommittedTransactionTest;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "member.read-model.enabled=true")
+class MemberColumnStoreTest extends CommittedTransactionTest {
+
+    private static final String[] PROPERTY_NAMES = {"age", "team", "username"};
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    ApplicationEventPublisher publisher;
+
+    @Autowired
+    MemberColumnStore columnStore;
+
+    @Autowired
+    MemberSearchTemplates searchTemplates;
+
+    Long[] ids;
+
+    @Override
+    protected List<String> cleanUpQueries() {
+        return List.of(
+                "delete from Member m where lower(m.username) like '%storemember%'",
+                "delete from Team t where t.name like 'storeTeam%'"
+        );
+    }
+
+    @BeforeEach
+    void before() throws InterruptedException {
+        ids = tx.execute(status -> {
+            Team teamA = new Team("storeTeamA");
+            Team teamB = new Team("storeTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("storeMember1", 10, teamA);
+            Member member2 = new Member("storeMember2", 20, teamA);
+            Member member3 = new Member("StoreMember3", 30, teamB);
+            Member member4 = new Member("xstoremember4", 40);
+            em.persist(member1);
+            em.persist(member2);
+            em.persist(member3);
+            em.persist(member4);
+            return new Long[]{member1.getId(), member2.getId(), teamA.getId()};
+        });
+
+        // 다른 테스트(다른 스프링 컨텍스트)에서 커밋한 변경은 이 컨텍스트로 이벤트가 오지 않으므로 다시 적재한다.
+        publisher.publishEvent(EntityChangeEvent.bulk(Member.class));
+        awaitLoaded(columnStore);
+    }
+
+    @Test
+    void sameAsDatabase() {
+        assertThat(assertSameAsDatabase(condition("storeMember1", UsernameMatch.EXACT, null, null, null))).hasSize(1);
+        assertThat(assertSameAsDatabase(condition("STOREMEMBER1", UsernameMatch.EXACT, null, null, null))).isEmpty();
+        assertThat(assertSameAsDatabase(condition("STOREmember", UsernameMatch.PREFIX, null, null, null))).hasSize(3);
+        assertThat(assertSameAsDatabase(condition("oreMEMBER4", UsernameMatch.CONTAINS, null, null, null))).hasSize(1);
+        assertThat(assertSameAsDatabase(condition(null, null, "storeTeamA", null, null))).hasSize(2);
+        assertThat(assertSameAsDatabase(condition("store", UsernameMatch.PREFIX, null, 20, 30))).hasSize(2);
+        assertThat(assertSameAsDatabase(condition("member", UsernameMatch.CONTAINS, "storeTeamB", 25, null))).hasSize(1);
+        assertThat(assertSameAsDatabase(condition(null, null, "noSuchTeam", null, null))).isEmpty();
+        assertSameAsDatabase(condition("member", UsernameMatch.CONTAINS, null, null, null));
+        assertSameAsDatabase(new MemberSearchCondition());
+    }
+
+    // 적재가 끝난 뒤 커밋된 변경은 이벤트로 반영된다.
+    @Test
+    void followsCommittedChanges() {
+        tx.executeWithoutResult(status -> {
+            em.find(Member.class, ids[1]).setAge(99);
+            em.find(Team.class, ids[2]).setName("storeTeamC");
+            em.remove(em.find(Member.class, ids[0]));
+            em.persist(new Member("storeMember5", 50, em.find(Team.class, ids[2])));
+        });
+
+        assertThat(assertSameAsDatabase(condition(null, null, "storeTeamC", null, null)))
+                .extracting(MemberTeamDto::getUsername)
+                .containsExactlyInAnyOrder("storeMember2", "storeMember5");
+        assertThat(assertSameAsDatabase(condition(null, null, "storeTeamA", null, null))).isEmpty();
+        assertThat(assertSameAsDatabase(condition("storeMember", UsernameMatch.PREFIX, null, 90, null))).hasSize(1);
+        assertSameAsDatabase(new MemberSearchCondition());
+    }
+
+    // 청크를 읽은 뒤 반영하기 전에 커밋된 변경 (삭제, 수정, 추가)
+    // 삭제된 회원이 읽어둔 청크로 다시 들어오거나, 수정된 회원이 청크의 이전 값으로 덮어써지면 안 된다.
+    @Test
+    void changesDuringLoad() throws InterruptedException {
+        MemberColumnStore store = new MemberColumnStore(queryFactory, new SimpleMeterRegistry()) {
+            boolean changed;
+
+            @Override
+            List<Tuple> fetchChunk(long afterId) {
+                List<Tuple> rows = super.fetchChunk(afterId);
+                if (!changed) {
+                    changed = true;
+                    // 이 저장소는 빈이 아니므로 커밋 이후 이벤트를 직접 전달한다.
+                    List<EntityChangeEvent> events = tx.execute(status -> commitChangesDuringLoad());
+                    events.forEach(this::onEntityChange);
+                }
+                return rows;
+            }
+        };
+
+        store.loadOnStartup();
+        awaitLoaded(store);
+
+        List<MemberTeamDto> inTeamA = store.search(condition(null, null, "storeTeamA", null, null));
+        assertThat(inTeamA).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(searchTemplates.fetch(condition(null, null, "storeTeamA", null, null)));
+        assertThat(inTeamA)
+                .extracting(dto -> dto.getUsername() + ":" + dto.getAge())
+                .containsExactlyInAnyOrder("storeMember2:99", "storeMember5:50");
+        assertThat(store.search(new MemberSearchCondition())).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(searchTemplates.fetch(new MemberSearchCondition()));
+    }
+
+    private List<EntityChangeEvent> commitChangesDuringLoad() {
+        Team teamA = em.find(Team.class, ids[2]);
+        Member member1 = em.find(Member.class, ids[0]);
+        Member member2 = em.find(Member.class, ids[1]);
+        em.remove(member1);
+        member2.setAge(99);
+        Member member5 = new Member("storeMember5", 50, teamA);
+        em.persist(member5);
+        em.flush();
+        return List.of(
+                EntityChangeEvent.deleted(member1, member1.getId(), PROPERTY_NAMES, new Object[]{10, teamA, "storeMember1"}),
+                EntityChangeEvent.updated(member2, member2.getId(), PROPERTY_NAMES, new Object[]{99, teamA, "storeMember2"}, new Object[]{20, teamA, "storeMember2"}),
+                EntityChangeEvent.inserted(member5, member5.getId(), PROPERTY_NAMES, new Object[]{50, teamA, "storeMember5"}));
+    }
+
+    // 저장소 결과와 DB 조회 결과가 같은지 확인하고 저장소 결과를 반환한다.
+    private List<MemberTeamDto> assertSameAsDatabase(MemberSearchCondition condition) {
+        List<MemberTeamDto> fromStore = columnStore.search(condition);
+        assertThat(fromStore).as("read model not loaded").isNotNull();
+        assertThat(fromStore).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(searchTemplates.fetch(condition));
+        return fromStore;
+    }
+
+    // 적재는 별도 스레드에서 하고, 끝나기 전에는 search()가 null을 반환한다.
+    private static void awaitLoaded(MemberColumnStore store) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (store.search(new MemberSearchCondition()) == null) {
+            assertThat(System.nanoTime()).as("read model load timed out").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static MemberSearchCondition condition(String username, UsernameMatch match, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setUsernameMatch(match);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
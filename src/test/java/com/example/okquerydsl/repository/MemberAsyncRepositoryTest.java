@@ -0,0 +1,62 @@
+package com.example.okquerydsl.repository;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import com.example.okquerydsl.support.CommittedTransactionTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 비동기 검색은 별도 트랜잭션에서 실행되므로 테스트 데이터를 커밋해둔다.
+@SpringBootTest
+class MemberAsyncRepositoryTest extends CommittedTransactionTest {
+
+    @Autowired
+    MemberAsyncRepository memberAsyncRepository;
+
+    @Override
+    protected List<String> cleanUpQueries() {
+        return List.of(
+                "delete from Member m where m.team in (select t from Team t where t.name in ('asyncA', 'asyncB'))",
+                "delete from Team t where t.name in ('asyncA', 'asyncB')"
+        );
+    }
+
+    @BeforeEach
+    void setUp() {
+        tx.executeWithoutResult(status -> {
+            Team asyncA = new Team("asyncA");
+            Team asyncB = new Team("asyncB");
+            em.persist(asyncA);
+            em.persist(asyncB);
+
+            em.persist(new Member("member1", 10, asyncA));
+            em.persist(new Member("member2", 20, asyncA));
+            em.persist(new Member("member3", 30, asyncB));
+        });
+    }
+
+    @Test
+    void searchConcurrently() {
+        MemberSearchCondition conditionA = new MemberSearchCondition();
+        conditionA.setTeamName("asyncA");
+        MemberSearchCondition conditionB = new MemberSearchCondition();
+        conditionB.setTeamName("asyncB");
+
+        CompletableFuture<List<MemberTeamDto>> searchA = memberAsyncRepository.search(conditionA);
+        CompletableFuture<Page<MemberTeamDto>> searchB = memberAsyncRepository.searchPage(conditionB, PageRequest.of(0, 10));
+
+        assertThat(searchA.join()).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(searchB.join().getTotalElements()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.okquerydsl.repository;
+
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.example.okquerydsl.support.CommittedTransactionTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.okquerydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// chunk마다 별도 트랜잭션(REQUIRES_NEW)으로 커밋되므로 테스트 데이터도 커밋해둔다.
+@SpringBootTest
+@RecordApplicationEvents
+class MemberBulkRepositoryTest extends CommittedTransactionTest {
+
+    private static final int CHUNK_SIZE = 3;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ApplicationEvents events;
+
+    // 나이가 i인 회원의 id
+    Long[] ids;
+
+    @Override
+    protected List<String> cleanUpQueries() {
+        return List.of("delete from Member m where m.username like 'bulk%'");
+    }
+
+    @BeforeEach
+    void before() {
+        ids = tx.execute(status -> {
+            Long[] result = new Long[10];
+            for (int i = 0; i < result.length; i++) {
+                Member bulkMember = new Member("bulkMember" + i, i);
+                em.persist(bulkMember);
+                result[i] = bulkMember.getId();
+            }
+            return result;
+        });
+    }
+
+    // 대상 row CHUNK_SIZE 건마다 트랜잭션 하나 (10건 -> 3, 3, 3, 1)
+    @Test
+    void oneTransactionPerChunk() {
+        List<Object> chunkTransactions = new ArrayList<>();
+
+        long updated = memberRepository.bulkUpdate(member.username.startsWith("bulkMember"), update -> {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isTrue();
+            chunkTransactions.add(TransactionSynchronizationManager.getResource(emf));
+            update.set(member.age, member.age.add(100));
+        }, CHUNK_SIZE);
+
+        assertThat(updated).isEqualTo(10);
+        assertThat(chunkTransactions)
+                .hasSize(4)
+                .doesNotHaveDuplicates();
+        assertThat(tx.execute(status -> em
+                .createQuery("select min(m.age) from Member m where m.username like 'bulkMember%'", Integer.class)
+                .getSingleResult())).isEqualTo(100);
+    }
+
+    // id가 띄엄띄엄해도 빈 chunk 없이 대상 row만 CHUNK_SIZE 건씩 나눈다.
+    @Test
+    void sparseIds() {
+        tx.executeWithoutResult(status -> em
+                .createQuery("delete from Member m where m.username like 'bulkMember%' and mod(m.age, 2) = 0")
+                .executeUpdate());
+        AtomicInteger chunks = new AtomicInteger();
+
+        long updated = memberRepository.bulkUpdate(member.username.startsWith("bulkMember"), update -> {
+            chunks.incrementAndGet();
+            update.set(member.age, member.age.add(100));
+        }, CHUNK_SIZE);
+
+        assertThat(updated).isEqualTo(5);
+        assertThat(chunks).hasValue(2);
+    }
+
+    // chunk가 여러 개여도 캐시, 인덱스가 받는 BULK 이벤트는 작업이 끝난 뒤 한 번이다.
+    @Test
+    void oneBulkEventPerOperation() {
+        events.clear();
+
+        memberRepository.bulkUpdate(member.username.startsWith("bulkMember"),
+                update -> update.set(member.age, member.age.add(100)), CHUNK_SIZE);
+
+        assertThat(events.stream(EntityChangeEvent.class).filter(EntityChangeEvent::isBulk))
+                .singleElement()
+                .satisfies(event -> assertThat(event.isAbout(Member.class)).isTrue());
+    }
+
+    // 바뀐 회원만 영속성 컨텍스트에서 내리고, 나머지는 그대로 둔다.
+    @Test
+    void bulkUpdateDetachesOnlyAffected() {
+        tx.executeWithoutResult(status -> {
+            Member affected = em.find(Member.class, ids[7]);
+            Member unaffected = em.find(Member.class, ids[2]);
+
+            long updated = memberRepository.bulkUpdate(
+                    member.username.startsWith("bulkMember").and(member.age.goe(5)),
+                    update -> update.set(member.username, "bulkRenamed"),
+                    CHUNK_SIZE);
+
+            assertThat(updated).isEqualTo(5);
+            assertThat(em.contains(affected)).isFalse();
+            assertThat(em.contains(unaffected)).isTrue();
+            // 다시 조회하면 chunk 트랜잭션이 커밋한 값을 읽는다.
+            assertThat(em.find(Member.class, ids[7]).getUsername()).isEqualTo("bulkRenamed");
+            assertThat(unaffected.getUsername()).isEqualTo("bulkMember2");
+        });
+    }
+
+    @Test
+    void bulkDeleteDetachesOnlyAffected() {
+        tx.executeWithoutResult(status -> {
+            Member deleted = em.find(Member.class, ids[1]);
+            Member kept = em.find(Member.class, ids[8]);
+
+            long removed = memberRepository.bulkDelete(
+                    member.username.startsWith("bulkMember").and(member.age.lt(3)),
+                    CHUNK_SIZE);
+
+            assertThat(removed).isEqualTo(3);
+            assertThat(em.contains(deleted)).isFalse();
+            assertThat(em.contains(kept)).isTrue();
+            assertThat(em.find(Member.class, ids[1])).isNull();
+        });
+    }
+}
@@ -76,4 +76,33 @@ class MemberJpaRepositoryTest {
                 .containsExactly("member3", "member4");
     }
 
+    // ageGoe <= age <= ageLoe (예전 ageBetween은 두 값을 바꿔서 age <= ageGoe and age >= ageLoe 로 조회했다)
+    // 한쪽 값만 있어도 되고, 빈 문자열 회원명은 조건 없음이다.
+    @Test
+    void searchMembers() {
+        Team predicateTeam = new Team("predicateTeam");
+        em.persist(predicateTeam);
+        for (int age = 10; age <= 40; age += 10) {
+            em.persist(new Member("predicateMember" + age, age, predicateTeam));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("predicateTeam");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(30);
+        assertThat(memberJpaRepository.searchMembers(condition))
+                .extracting("username")
+                .containsExactlyInAnyOrder("predicateMember20", "predicateMember30");
+
+        condition.setAgeLoe(null);
+        condition.setAgeGoe(35);
+        assertThat(memberJpaRepository.searchMembers(condition))
+                .extracting("username")
+                .containsExactly("predicateMember40");
+
+        condition.setAgeGoe(null);
+        condition.setUsername("");
+        assertThat(memberJpaRepository.searchMembers(condition)).hasSize(4);
+    }
+
 }
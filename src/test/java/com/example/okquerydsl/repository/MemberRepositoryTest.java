@@ -1,7 +1,9 @@
 package com.example.okquerydsl.repository;
 
+import com.example.okquerydsl.dto.CursorPage;
 import com.example.okquerydsl.dto.MemberSearchCondition;
 import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.dto.UsernameMatch;
 import com.example.okquerydsl.entity.Member;
 import com.example.okquerydsl.entity.QMember;
 import com.example.okquerydsl.entity.Team;
@@ -17,6 +19,8 @@ import java.util.List;
 
 import static com.example.okquerydsl.entity.QMember.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 @SpringBootTest
 @Transactional
@@ -135,6 +139,134 @@ class MemberRepositoryTest {
                 .containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    void searchPageComplexWithCondition() {
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(35);
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent())
+                .extracting("username", "teamName")
+                .containsExactly(tuple("member4", "teamB"));
+
+        condition.setTeamName("teamC");
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 3)).getContent()).isEmpty();
+    }
+
+    @Test
+    void searchPageConcurrent() {
+
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("member" + i, 10 + i, teamA));
+        }
+
+        // 테스트 트랜잭션 안이므로 순서대로 실행된다. (다른 커넥션에서는 커밋되지 않은 데이터가 보이지 않음)
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        Page<MemberTeamDto> result = memberRepository.searchPageConcurrent(condition, PageRequest.of(1, 2));
+
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getContent()).hasSize(2);
+    }
+
+    @Test
+    void searchByUsernameMatch() {
+
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member("Alice", 10, teamA));
+        em.persist(new Member("alicia", 20, teamA));
+        em.persist(new Member("Malik", 30, teamA));
+        em.persist(new Member("bob_1", 40, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("ali");
+
+        condition.setUsernameMatch(UsernameMatch.PREFIX);
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)).getContent())
+                .extracting("username")
+                .containsExactlyInAnyOrder("Alice", "alicia");
+
+        condition.setUsernameMatch(UsernameMatch.CONTAINS);
+        assertThat(memberRepository.search(condition))
+                .extracting("username")
+                .containsExactlyInAnyOrder("Alice", "alicia", "Malik");
+
+        // like 특수문자는 그대로 비교한다.
+        condition.setUsername("b_");
+        assertThat(memberRepository.search(condition)).isEmpty();
+        condition.setUsername("b_1");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("bob_1");
+    }
+
+    @Test
+    void searchByCursor() {
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 40, teamA);
+        Member member2 = new Member("member2", 30, teamA);
+
+        Member member3 = new Member("member3", 20, teamB);
+        Member member4 = new Member("member4", 30, teamB);
+
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        CursorPage<MemberTeamDto> first = memberRepository.searchByCursor(condition, MemberCursor.first(MemberCursor.SortKey.AGE), 3);
+        assertThat(first.getContent())
+                .extracting("username")
+                .containsExactly("member3", "member2", "member4");
+        assertThat(first.isHasNext()).isTrue();
+
+        MemberCursor next = MemberCursor.decode(first.getNextCursor(), MemberCursor.SortKey.ID);
+        CursorPage<MemberTeamDto> second = memberRepository.searchByCursor(condition, next, 3);
+        assertThat(second.getContent())
+                .extracting("username")
+                .containsExactly("member1");
+        assertThat(second.isHasNext()).isFalse();
+    }
+
+    @Test
+    void searchByCursorRejectsInvalidInput() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        assertThatThrownBy(() -> memberRepository.searchByCursor(condition, MemberCursor.first(MemberCursor.SortKey.ID), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MemberCursor.decode("not-a-cursor", MemberCursor.SortKey.ID))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void queryDslPredicateExecutorTest() {
 
@@ -0,0 +1,98 @@
+package com.example.okquerydsl.repository.cache;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.repository.MemberSearchTemplates;
+import com.example.okquerydsl.support.CommittedTransactionTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MemberCountCacheTest extends CommittedTransactionTest {
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    MemberSearchTemplates searchTemplates;
+
+    MemberSearchCondition condition;
+
+    @Override
+    protected List<String> cleanUpQueries() {
+        return List.of("delete from Member m where m.username = 'countMember'");
+    }
+
+    @BeforeEach
+    void before() {
+        countCache.invalidate();
+        condition = new MemberSearchCondition();
+        condition.setUsername("countMember");
+    }
+
+    @Test
+    void cachesCount() {
+        AtomicInteger queries = new AtomicInteger();
+        LongSupplier countQuery = () -> {
+            queries.incrementAndGet();
+            return 1L;
+        };
+
+        assertThat(countCache.get(condition, countQuery)).isEqualTo(1);
+        assertThat(countCache.get(condition, countQuery)).isEqualTo(1);
+        assertThat(queries).hasValue(1);
+        assertThat(countCache.getIfPresent(condition)).isEqualTo(1L);
+    }
+
+    // count 쿼리 도중 무효화되면 그 결과(변경 전 count)는 캐시에 남지 않는다.
+    @Test
+    void staleCountNotCached() {
+        long count = countCache.get(condition, () -> {
+            countCache.invalidate();
+            return 1L;
+        });
+
+        assertThat(count).isEqualTo(1);
+        assertThat(countCache.getIfPresent(condition)).isNull();
+    }
+
+    // 쓰기 트랜잭션 안에서는 캐시를 읽지도 채우지도 않는다. 읽기 전용 트랜잭션은 캐시를 쓴다.
+    @Test
+    void bypassedInWriteTransaction() {
+        countCache.get(condition, () -> 1L);
+
+        assertThat(tx.execute(status -> countCache.getIfPresent(condition))).isNull();
+        assertThat(tx.execute(status -> countCache.get(condition, () -> 2L))).isEqualTo(2);
+        assertThat(countCache.getIfPresent(condition)).isEqualTo(1L);
+
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        assertThat(readOnlyTx.execute(status -> countCache.get(condition, () -> 3L))).isEqualTo(1);
+    }
+
+    // 회원 변경이 커밋되면 다음 count는 캐시가 아니라 DB에서 읽는다.
+    @Test
+    void countAfterCommit() {
+        LongSupplier countQuery = () -> searchTemplates.count(condition);
+
+        tx.executeWithoutResult(status -> em.persist(new Member("countMember", 10)));
+        assertThat(countCache.get(condition, countQuery)).isEqualTo(1);
+
+        tx.executeWithoutResult(status -> em.persist(new Member("countMember", 20)));
+        assertThat(countCache.getIfPresent(condition)).isNull();
+        assertThat(countCache.get(condition, countQuery)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.okquerydsl.repository.cache;
+
+import com.example.okquerydsl.dto.MemberSearchCondition;
+import com.example.okquerydsl.dto.MemberTeamDto;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.example.okquerydsl.repository.MemberSearchTemplates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemberSearchCacheTest {
+
+    MemberSearchTemplates searchTemplates;
+    MemberSearchCache searchCache;
+    MemberSearchCondition condition;
+
+    @BeforeEach
+    void before() {
+        searchTemplates = mock(MemberSearchTemplates.class);
+        searchCache = new MemberSearchCache(searchTemplates, new SimpleMeterRegistry(), 1000, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+    }
+
+    @Test
+    void cachesResult() {
+        when(searchTemplates.fetch(any())).thenReturn(List.of(dto(10)));
+
+        searchCache.search(condition);
+        searchCache.search(condition);
+
+        verify(searchTemplates, times(1)).fetch(any());
+    }
+
+    // 캐시된 결과를 받은 쪽이 DTO를 고쳐도 다음 요청의 결과는 바뀌지 않는다.
+    @Test
+    void returnsCopies() {
+        when(searchTemplates.fetch(any())).thenReturn(List.of(dto(10)));
+
+        List<MemberTeamDto> first = searchCache.search(condition);
+        first.get(0).setUsername("changed");
+        first.clear();
+        List<MemberTeamDto> second = searchCache.search(condition);
+
+        assertThat(second).extracting(MemberTeamDto::getUsername).containsExactly("member1");
+        verify(searchTemplates, times(1)).fetch(any());
+    }
+
+    // 조회 도중 커밋된 변경 이벤트가 오면 그 조회 결과(변경 전 row)는 캐시에 남지 않는다.
+    @Test
+    void invalidateDuringLoad() {
+        when(searchTemplates.fetch(any()))
+                .thenAnswer(invocation -> {
+                    searchCache.onEntityChange(memberInserted());
+                    return List.of(dto(10));
+                })
+                .thenReturn(List.of(dto(10), dto(11)));
+
+        // 변경 전 결과는 버리고 캐시 없이 다시 조회한다.
+        assertThat(searchCache.search(condition)).hasSize(2);
+        assertThat(searchCache.search(condition)).hasSize(2);
+        assertThat(searchCache.search(condition)).hasSize(2);
+
+        verify(searchTemplates, times(3)).fetch(any());
+    }
+
+    private static MemberTeamDto dto(long id) {
+        return new MemberTeamDto(id, "member1", 10, null, null);
+    }
+
+    private static EntityChangeEvent memberInserted() {
+        return EntityChangeEvent.inserted(new Member("member1", 10), 11L,
+                new String[]{"age", "team", "username"}, new Object[]{10, null, "member1"});
+    }
+}
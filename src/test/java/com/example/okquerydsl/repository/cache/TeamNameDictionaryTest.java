@@ -0,0 +1,90 @@
+package com.example.okquerydsl.repository.cache;
+
+import com.example.okquerydsl.entity.Team;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.example.okquerydsl.support.CommittedTransactionTest;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TeamNameDictionaryTest extends CommittedTransactionTest {
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamNameDictionary teamNameDictionary;
+
+    @Override
+    protected List<String> cleanUpQueries() {
+        return List.of("delete from Team t where t.name like 'dictTeam%'");
+    }
+
+    // 팀 추가, 이름 변경이 커밋되면 다음 조회는 DB에서 다시 읽는다.
+    @Test
+    void followsCommittedChanges() {
+        Long first = saveTeam("dictTeam");
+        assertThat(teamNameDictionary.idsOf("dictTeam")).containsExactly(first);
+
+        Long second = saveTeam("dictTeam");
+        assertThat(teamNameDictionary.idsOf("dictTeam")).containsExactlyInAnyOrder(first, second);
+
+        tx.executeWithoutResult(status -> em.find(Team.class, second).setName("dictTeamRenamed"));
+        assertThat(teamNameDictionary.idsOf("dictTeam")).containsExactly(first);
+        assertThat(teamNameDictionary.idsOf("dictTeamRenamed")).containsExactly(second);
+    }
+
+    // 쓰기 트랜잭션 안에서는 커밋되지 않은 팀을 보고 있을 수 있으므로 사전을 읽지도 채우지도 않는다.
+    // 롤백되면 이벤트가 오지 않으므로, 채웠다면 롤백된 팀이 계속 보인다.
+    @Test
+    void bypassedInWriteTransaction() {
+        Long first = saveTeam("dictTeam");
+        assertThat(teamNameDictionary.idsOf("dictTeam")).containsExactly(first);
+
+        tx.executeWithoutResult(status -> {
+            em.persist(new Team("dictTeam"));
+            em.flush();
+            assertThat(teamNameDictionary.idsOf("dictTeam")).hasSize(2);
+            status.setRollbackOnly();
+        });
+
+        assertThat(teamNameDictionary.idsOf("dictTeam")).containsExactly(first);
+    }
+
+    // 조회 도중 팀 변경이 커밋되면 그 조회 결과는 사전에 남지 않는다.
+    @Test
+    void staleLoadNotCached() {
+        Long first = saveTeam("dictTeam");
+        AtomicInteger loads = new AtomicInteger();
+        TeamNameDictionary dictionary = new TeamNameDictionary(queryFactory, 100) {
+            @Override
+            List<Long> load(String teamName) {
+                List<Long> loaded = super.load(teamName);
+                if (loads.incrementAndGet() == 1) {
+                    onEntityChange(EntityChangeEvent.bulk(Team.class));
+                }
+                return loaded;
+            }
+        };
+
+        assertThat(dictionary.idsOf("dictTeam")).containsExactly(first);
+        assertThat(dictionary.idsOf("dictTeam")).containsExactly(first);
+        assertThat(dictionary.idsOf("dictTeam")).containsExactly(first);
+        assertThat(loads).hasValue(2);
+    }
+
+    private Long saveTeam(String name) {
+        return tx.execute(status -> {
+            Team team = new Team(name);
+            em.persist(team);
+            return team.getId();
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.okquerydsl.repository.cache;
+
+import com.example.okquerydsl.dto.UsernameMatch;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.querydsl.core.types.Expression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class UsernameIndexTest {
+
+    static final String[] PROPERTY_NAMES = {"age", "team", "username"};
+
+    UsernameIndex index;
+
+    // 빈 테이블로 만든 뒤 회원은 커밋 이벤트로 넣는다.
+    @BeforeEach
+    void before() throws InterruptedException {
+        JPAQueryFactory queryFactory = mock(JPAQueryFactory.class);
+        doReturn(mock(JPAQuery.class, RETURNS_SELF)).when(queryFactory).select(any(Expression.class), any(Expression.class));
+        index = new UsernameIndex(queryFactory, new SimpleMeterRegistry(), 1000);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (index.idsOf("member", UsernameMatch.EXACT) == null) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void match() {
+        insert(1, "Member1");
+        insert(2, "member1");
+        insert(3, "member12");
+        insert(4, "other");
+
+        assertThat(index.idsOf("MEMBER1", UsernameMatch.EXACT)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.idsOf("member1", UsernameMatch.PREFIX)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(index.idsOf("mber1", UsernameMatch.CONTAINS)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(index.idsOf("the", UsernameMatch.CONTAINS)).containsExactly(4L);
+        assertThat(index.idsOf("xyz", UsernameMatch.CONTAINS)).isEmpty();
+        // 3글자 미만 CONTAINS는 DB like 검색
+        assertThat(index.idsOf("me", UsernameMatch.CONTAINS)).isNull();
+    }
+
+    // 원래 회원명을 사전순으로 돌려준다.
+    @Test
+    void complete() {
+        insert(1, "member2");
+        insert(2, "Member1");
+        insert(3, "member1");
+        insert(4, "other");
+
+        assertThat(index.complete("mem", 10)).containsExactly("Member1", "member1", "member2");
+        assertThat(index.complete("mem", 2)).containsExactly("Member1", "member1");
+    }
+
+    @Test
+    void updateAndDelete() {
+        insert(1, "member1");
+        insert(2, "member2");
+
+        index.onEntityChange(EntityChangeEvent.updated(new Member("renamed", 10), 1L, PROPERTY_NAMES,
+                new Object[]{10, null, "renamed"}, new Object[]{10, null, "member1"}));
+        index.onEntityChange(EntityChangeEvent.deleted(new Member("member2", 10), 2L, PROPERTY_NAMES,
+                new Object[]{10, null, "member2"}));
+
+        assertThat(index.idsOf("member", UsernameMatch.PREFIX)).isEmpty();
+        assertThat(index.idsOf("renamed", UsernameMatch.EXACT)).containsExactly(1L);
+        assertThat(index.complete("", 10)).containsExactly("renamed");
+    }
+
+    // 정렬 배열에 합치고(delta merge), 지운 회원명이 많아져서 번호를 다시 매긴 뒤(compact)에도 결과가 같다.
+    @Test
+    void mergeAndCompact() {
+        LongStream.rangeClosed(1, 20_000).forEach(id -> insert(id, "member" + id));
+        LongStream.rangeClosed(1, 20_000).filter(id -> id % 100 != 0).forEach(this::delete);
+
+        assertThat(index.idsOf("member", UsernameMatch.PREFIX)).hasSize(200);
+        assertThat(index.idsOf("member1000", UsernameMatch.EXACT)).containsExactly(1000L);
+        assertThat(index.idsOf("r199", UsernameMatch.CONTAINS)).containsExactly(19900L);
+        assertThat(index.complete("member1", 3)).containsExactly("member100", "member1000", "member10000");
+
+        insert(20_001, "member1");
+        assertThat(index.idsOf("member1", UsernameMatch.EXACT)).containsExactly(20_001L);
+    }
+
+    // 벌크 연산이 커밋되면 다시 만들 때까지 DB like 검색을 한다.
+    @Test
+    void bulk() {
+        insert(1, "member1");
+
+        index.onEntityChange(EntityChangeEvent.bulk(Member.class));
+
+        assertThat(index.idsOf("member1", UsernameMatch.EXACT)).isNull();
+    }
+
+    private void insert(long id, String username) {
+        index.onEntityChange(EntityChangeEvent.inserted(new Member(username, 10), id, PROPERTY_NAMES,
+                new Object[]{10, null, username}));
+    }
+
+    private void delete(long id) {
+        index.onEntityChange(EntityChangeEvent.deleted(new Member("member" + id, 10), id, PROPERTY_NAMES,
+                new Object[]{10, null, "member" + id}));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.okquerydsl.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 트랜잭션 밖에서 호출해야 동시 실행 경로를 탄다. (@Transactional 테스트는 순서대로 실행된다)
+@SpringBootTest
+class ConcurrentPageExecutorTest {
+
+    @Autowired
+    ConcurrentPageExecutor executor;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void countRunsOnCountPool() {
+        double before = counter("member.search.page", "mode", "concurrent");
+        AtomicReference<String> countThread = new AtomicReference<>();
+        AtomicReference<Boolean> countReadOnly = new AtomicReference<>();
+
+        Page<String> page = executor.getPage(PageRequest.of(0, 2),
+                () -> List.of("a", "b"),
+                () -> {
+                    countThread.set(Thread.currentThread().getName());
+                    countReadOnly.set(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+                    return 10;
+                });
+
+        assertThat(page.getTotalElements()).isEqualTo(10);
+        assertThat(page.getContent()).containsExactly("a", "b");
+        assertThat(countThread.get()).startsWith("page-count-");
+        assertThat(countReadOnly.get()).isTrue();
+        assertThat(counter("member.search.page", "mode", "concurrent")).isEqualTo(before + 1);
+    }
+
+    // 첫 페이지가 pageSize보다 적으면 count가 필요 없으므로 실행 중인 count를 취소한다.
+    @Test
+    void cancelsUnneededCount() throws InterruptedException {
+        double before = counter("member.search.page.count.cancelled");
+        CountDownLatch countStarted = new CountDownLatch(1);
+        CountDownLatch releaseCount = new CountDownLatch(1);
+
+        try {
+            Page<String> page = executor.getPage(PageRequest.of(0, 10),
+                    () -> {
+                        await(countStarted);
+                        return List.of("a");
+                    },
+                    () -> {
+                        countStarted.countDown();
+                        await(releaseCount);
+                        return 100;
+                    });
+
+            assertThat(page.getTotalElements()).isEqualTo(1);
+            assertThat(counter("member.search.page.count.cancelled")).isEqualTo(before + 1);
+        } finally {
+            releaseCount.countDown();
+        }
+    }
+
+    @Test
+    void knownTotalSkipsCountPool() {
+        double before = counter("member.search.page", "mode", "cached");
+
+        Page<String> page = executor.getPage(PageRequest.of(0, 2), () -> List.of("a", "b"), 7L);
+
+        assertThat(page.getTotalElements()).isEqualTo(7);
+        assertThat(counter("member.search.page", "mode", "cached")).isEqualTo(before + 1);
+    }
+
+    private double counter(String name, String... tags) {
+        var counter = meterRegistry.find(name).tags(tags).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.okquerydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.example.okquerydsl.entity.QMember.member;
+import static com.example.okquerydsl.repository.support.NullSafePredicates.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NullSafePredicatesTest {
+
+    @Test
+    void absentValuesAreNoCondition() {
+        assertThat(eq(member.age, null)).isNull();
+        assertThat(eq(member.username, null)).isNull();
+        // 문자열은 빈 문자열, 공백도 조건 없음
+        assertThat(eq(member.username, "")).isNull();
+        assertThat(eq(member.username, " ")).isNull();
+        assertThat(in(member.id, List.of())).isNull();
+        assertThat(goe(member.age, null)).isNull();
+        assertThat(loe(member.age, null)).isNull();
+        assertThat(allOf(null, null)).isNull();
+        assertThat(anyOf(null, null)).isNull();
+    }
+
+    @Test
+    void presentValues() {
+        assertThat(eq(member.username, "member1")).isEqualTo(member.username.eq("member1"));
+        assertThat(in(member.id, List.of(1L, 2L))).isEqualTo(member.id.in(List.of(1L, 2L)));
+        assertThat(allOf(eq(member.username, "member1"), goe(member.age, 10)))
+                .isEqualTo(member.username.eq("member1").and(member.age.goe(10)));
+    }
+
+    // between(path, from, to)는 from <= path <= to. 한쪽만 있으면 그쪽 조건만 적용한다.
+    @Test
+    void between() {
+        assertThat(NullSafePredicates.between(member.age, 10, 20)).isEqualTo(member.age.between(10, 20));
+        assertThat(NullSafePredicates.between(member.age, 10, null)).isEqualTo(member.age.goe(10));
+        assertThat(NullSafePredicates.between(member.age, null, 20)).isEqualTo(member.age.loe(20));
+        assertThat(NullSafePredicates.between(member.age, null, null)).isNull();
+    }
+}
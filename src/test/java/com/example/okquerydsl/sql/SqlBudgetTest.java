@@ -0,0 +1,77 @@
+package com.example.okquerydsl.sql;
+
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "sql.budget.repeated-shape-threshold=3")
+@Transactional
+class SqlBudgetTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    SqlBudget sqlBudget;
+
+    @BeforeEach
+    void before() {
+        for (int i = 0; i < 4; i++) {
+            Team team = new Team("budgetTeam" + i);
+            em.persist(team);
+            em.persist(new Member("budgetMember" + i, 10 + i, team));
+        }
+        em.flush();
+        em.clear();
+        // 2차 캐시에서 팀을 읽으면 SQL이 나가지 않는다.
+        em.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+    }
+
+    @Test
+    void lazyLoadingInLoop() {
+        SqlScope scope;
+        try (SqlScope opened = sqlBudget.open("lazyLoadingInLoop", 0)) {
+            scope = opened;
+            List<Member> members = em.createQuery("select m from Member m where m.username like 'budgetMember%'", Member.class)
+                    .getResultList();
+            // 팀마다 select team ... where id=? 가 한 번씩 나간다.
+            members.forEach(member -> member.getTeam().getName());
+        }
+
+        assertThat(scope.getStatements()).isEqualTo(5);
+        assertThat(scope.getRepeatedShapes()).hasSize(1);
+        assertThat(scope.getRepeatedShapes().iterator().next()).contains("from team");
+        assertThat(scope.isViolated()).isTrue();
+    }
+
+    @Test
+    void fetchJoin() {
+        SqlScope scope;
+        try (SqlScope opened = sqlBudget.open("fetchJoin", 1)) {
+            scope = opened;
+            List<Member> members = em.createQuery("select m from Member m join fetch m.team where m.username like 'budgetMember%'", Member.class)
+                    .getResultList();
+            members.forEach(member -> member.getTeam().getName());
+        }
+
+        assertThat(scope.getStatements()).isEqualTo(1);
+        assertThat(scope.isViolated()).isFalse();
+    }
+
+    @Test
+    void normalize() {
+        assertThat(SqlShapes.normalize("select * from member where id = 10 and username = 'a''b' and age in (1, 2, 3)"))
+                .isEqualTo(SqlShapes.normalize("SELECT *  FROM member WHERE id = 7 AND username = 'x' AND age IN (4)"));
+    }
+}
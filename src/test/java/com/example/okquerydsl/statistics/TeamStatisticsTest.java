@@ -0,0 +1,104 @@
+package com.example.okquerydsl.statistics;
+
+import com.example.okquerydsl.dto.TeamStatisticsDto;
+import com.example.okquerydsl.entity.Member;
+import com.example.okquerydsl.entity.Team;
+import com.example.okquerydsl.event.EntityChangeEvent;
+import com.example.okquerydsl.support.CommittedTransactionTest;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static com.example.okquerydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+@SpringBootTest
+class TeamStatisticsTest extends CommittedTransactionTest {
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamStatistics teamStatistics;
+
+    @Override
+    protected List<String> cleanUpQueries() {
+        return List.of(
+                "delete from Member m where m.team in (select t from Team t where t.name = 'statsTeam')",
+                "delete from Team t where t.name = 'statsTeam'"
+        );
+    }
+
+    @Test
+    void incrementalUpdate() {
+        teamStatistics.reconcile();
+
+        Long[] ids = tx.execute(status -> {
+            Team statsTeam = new Team("statsTeam");
+            em.persist(statsTeam);
+            Member member1 = new Member("member1", 10, statsTeam);
+            Member member2 = new Member("member2", 30, statsTeam);
+            em.persist(member1);
+            em.persist(member2);
+            return new Long[]{member1.getId(), member2.getId()};
+        });
+
+        TeamStatisticsDto inserted = statsTeam();
+        assertThat(inserted.getCount()).isEqualTo(2);
+        assertThat(inserted.getSum()).isEqualTo(40);
+        assertThat(inserted.getAvg()).isEqualTo(20);
+        assertThat(inserted.getMax()).isEqualTo(30);
+        assertThat(inserted.getMin()).isEqualTo(10);
+
+        // 최대값을 가진 회원이 빠지면 다음 값이 최대값이 된다.
+        tx.executeWithoutResult(status -> em.find(Member.class, ids[1]).setAge(5));
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, ids[0])));
+
+        TeamStatisticsDto changed = statsTeam();
+        assertThat(changed.getCount()).isEqualTo(1);
+        assertThat(changed.getMax()).isEqualTo(5);
+        assertThat(changed.getMin()).isEqualTo(5);
+    }
+
+    // 재계산 쿼리 도중 커밋된 변경은 재계산 결과로 교체한 뒤 다시 적용한다.
+    @Test
+    void eventDuringReload() {
+        Team statsTeam = tx.execute(status -> {
+            Team saved = new Team("statsTeam");
+            em.persist(saved);
+            em.persist(new Member("member1", 10, saved));
+            return saved;
+        });
+
+        // 팀 조회를 시작할 때 DB에 없는 회원의 INSERT 이벤트가 온다. (재계산 쿼리가 읽은 뒤에 커밋된 회원)
+        JPAQueryFactory spiedQueryFactory = spy(queryFactory);
+        TeamStatistics statistics = new TeamStatistics(spiedQueryFactory, Runnable::run, new SimpleMeterRegistry());
+        doAnswer(invocation -> {
+            statistics.onEntityChange(EntityChangeEvent.inserted(new Member("member2", 30, statsTeam), Long.MAX_VALUE,
+                    new String[]{"age", "team", "username"}, new Object[]{30, statsTeam, "member2"}));
+            return invocation.callRealMethod();
+        }).when(spiedQueryFactory).select(team.id, team.name);
+
+        TeamStatisticsDto reloaded = statsTeam(statistics);
+        assertThat(reloaded.getCount()).isEqualTo(2);
+        assertThat(reloaded.getSum()).isEqualTo(40);
+        assertThat(reloaded.getMax()).isEqualTo(30);
+    }
+
+    private TeamStatisticsDto statsTeam() {
+        return statsTeam(teamStatistics);
+    }
+
+    private static TeamStatisticsDto statsTeam(TeamStatistics teamStatistics) {
+        return teamStatistics.statistics().stream()
+                .filter(statistics -> statistics.getTeamName().equals("statsTeam"))
+                .findFirst()
+                .orElseThrow();
+    }
+}
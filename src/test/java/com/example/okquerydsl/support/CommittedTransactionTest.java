@@ -0,0 +1,27 @@
+package com.example.okquerydsl.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// 커밋된 뒤에 일어나는 일(EntityChangeEvent 리스너, REQUIRES_NEW 트랜잭션, 다른 스레드의 조회)을 확인하는 테스트의 공통 fixture
+// @Transactional 테스트는 롤백되므로 tx로 실제로 커밋하고, 테스트가 끝나면 cleanUpQueries()를 순서대로 실행해서 지운다.
+public abstract class CommittedTransactionTest {
+
+    @Autowired
+    protected EntityManager em;
+
+    @Autowired
+    protected TransactionTemplate tx;
+
+    // 테스트가 커밋한 데이터를 지우는 JPQL (회원을 팀보다 먼저 지운다)
+    protected abstract List<String> cleanUpQueries();
+
+    @AfterEach
+    protected void deleteCommitted() {
+        tx.executeWithoutResult(status -> cleanUpQueries().forEach(jpql -> em.createQuery(jpql).executeUpdate()));
+    }
+}